@@ -0,0 +1,116 @@
+package guru.springframework.reactivebeerclient.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.reactivebeerclient.client.BeerClient;
+import guru.springframework.reactivebeerclient.client.BeerClientImpl;
+import guru.springframework.reactivebeerclient.config.WebClientConfig;
+import guru.springframework.reactivebeerclient.config.WebClientConfigProperties;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpHeaders.LOCATION;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * End-to-end cost of each BeerClient operation against an in-process Reactor Netty stub serving canned
+ * responses, so the numbers reflect the client stack rather than a remote server. Sample mode reports
+ * the latency percentiles, p99 included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+public class BeerClientThroughputBenchmark {
+
+    @Param({"25", "1000"})
+    public int pageSize;
+
+    private DisposableServer server;
+    private WebClientConfig webClientConfig;
+    private BeerClient beerClient;
+    private BeerDto beer;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        beer = BeerFixtures.beer(new Random(42));
+        byte[] beerJson = objectMapper.writeValueAsBytes(beer);
+        byte[] pageJson = objectMapper.writeValueAsBytes(BeerFixtures.page(0, pageSize, pageSize * 10L));
+
+        server = HttpServer.create().host("127.0.0.1").port(0)
+                .route(routes -> routes
+                        .get("/api/v1/beer", (request, response) -> response.header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                                .sendByteArray(Mono.just(pageJson)))
+                        .get("/api/v1/beer/{beerId}", (request, response) -> response.header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                                .sendByteArray(Mono.just(beerJson)))
+                        .get("/api/v1/beerUpc/{upc}", (request, response) -> response.header(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                                .sendByteArray(Mono.just(beerJson)))
+                        .post("/api/v1/beer", (request, response) -> request.receive().then(response.status(201)
+                                .header(LOCATION, "/api/v1/beer/" + UUID.randomUUID()).send().then()))
+                        .put("/api/v1/beer/{beerId}", (request, response) -> request.receive()
+                                .then(response.status(204).send().then()))
+                        .delete("/api/v1/beer/{beerId}", (request, response) -> response.status(204).send()))
+                .bindNow();
+
+        WebClientConfigProperties properties = new WebClientConfigProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.port());
+        webClientConfig = new WebClientConfig(properties);
+        beerClient = new BeerClientImpl(webClientConfig.getWebClient(), properties.getBaseUrl());
+    }
+
+    @TearDown
+    public void tearDown() {
+        webClientConfig.dispose();
+        server.disposeNow();
+    }
+
+    @Benchmark
+    public BeerDto getBeerById() {
+        return beerClient.getBeerById(beer.getId()).block();
+    }
+
+    @Benchmark
+    public BeerDto getBeerByUPC() {
+        return beerClient.getBeerByUPC(beer.getUpc()).block();
+    }
+
+    @Benchmark
+    public BeerPagedList listBeers() {
+        return beerClient.listBeers(0, pageSize, null, null, null).block();
+    }
+
+    @Benchmark
+    public List<BeerDto> listBeersStreaming() {
+        return beerClient.listBeersStreaming(0, pageSize, null, null, null).collectList().block();
+    }
+
+    @Benchmark
+    public ResponseEntity<Void> createBeer() {
+        return beerClient.createBeer(beer).block();
+    }
+
+    @Benchmark
+    public ResponseEntity<Void> updateBeer() {
+        return beerClient.updateBeer(beer.getId(), beer).block();
+    }
+
+    @Benchmark
+    public ResponseEntity<Void> deleteBeerById() {
+        return beerClient.deleteBeerById(beer.getId()).block();
+    }
+}
@@ -0,0 +1,60 @@
+package guru.springframework.reactivebeerclient.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encode and decode cost of the wire models, using the same ObjectMapper setup as the WebClient codecs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BeerCodecBenchmark {
+
+    @Param({"25", "250", "1000"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private BeerDto beer;
+    private byte[] beerJson;
+    private BeerPagedList page;
+    private byte[] pageJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        beer = BeerFixtures.beer(new Random(42));
+        beerJson = objectMapper.writeValueAsBytes(beer);
+        page = BeerFixtures.page(0, pageSize, pageSize * 10L);
+        pageJson = objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encodeBeer() throws IOException {
+        return objectMapper.writeValueAsBytes(beer);
+    }
+
+    @Benchmark
+    public BeerDto decodeBeer() throws IOException {
+        return objectMapper.readValue(beerJson, BeerDto.class);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public BeerPagedList decodePage() throws IOException {
+        return objectMapper.readValue(pageJson, BeerPagedList.class);
+    }
+}
@@ -0,0 +1,42 @@
+package guru.springframework.reactivebeerclient.benchmark;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+final class BeerFixtures {
+
+    private static final BeerStyleEnum[] STYLES = BeerStyleEnum.values();
+
+    private BeerFixtures() {
+    }
+
+    static BeerDto beer(Random random) {
+        OffsetDateTime created = OffsetDateTime.now().minusDays(random.nextInt(365));
+        return BeerDto.builder()
+                .id(new UUID(random.nextLong(), random.nextLong()))
+                .beerName("Beer " + random.nextInt(100_000))
+                .beerStyle(STYLES[random.nextInt(STYLES.length)].name())
+                .upc(String.format("%013d", Math.abs(random.nextLong()) % 10_000_000_000_000L))
+                .price(BigDecimal.valueOf(random.nextInt(10_000), 2))
+                .quantityOnHand(random.nextInt(5_000))
+                .createdDate(created)
+                .lastUpdatedDate(created.plusHours(random.nextInt(48)))
+                .build();
+    }
+
+    static BeerPagedList page(int pageNumber, int pageSize, long totalElements) {
+        Random random = new Random(pageNumber);
+        List<BeerDto> content = IntStream.range(0, pageSize).mapToObj(i -> beer(random)).collect(Collectors.toList());
+        return new BeerPagedList(content, PageRequest.of(pageNumber, pageSize), totalElements);
+    }
+}
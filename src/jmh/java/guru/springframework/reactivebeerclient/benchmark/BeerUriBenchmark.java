@@ -0,0 +1,59 @@
+package guru.springframework.reactivebeerclient.benchmark;
+
+import guru.springframework.reactivebeerclient.client.BeerUriTemplates;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.web.util.UriBuilderFactory;
+
+import java.net.URI;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.BEER_V2_URL;
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.BEER_V2_URL_BY_BEERID;
+
+/**
+ * URI building before and after {@link BeerUriTemplates}: the WebClient's UriBuilderFactory expanding the configured
+ * templates per call against the precompiled templates now used by BeerClientImpl. Run with {@code -prof gc} to
+ * compare allocations as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BeerUriBenchmark {
+
+    private final UriBuilderFactory uriBuilderFactory = new DefaultUriBuilderFactory("http://localhost:8080");
+    private final BeerUriTemplates uriTemplates = new BeerUriTemplates("http://localhost:8080");
+    private final UUID beerId = UUID.randomUUID();
+
+    @Benchmark
+    public URI beerByIdUri() {
+        return uriBuilderFactory.builder().path(BEER_V2_URL_BY_BEERID)
+                .queryParamIfPresent("id", Optional.of(beerId))
+                .build(beerId);
+    }
+
+    @Benchmark
+    public URI listBeersUri() {
+        return uriBuilderFactory.builder().path(BEER_V2_URL)
+                .queryParamIfPresent("pageNumber", Optional.of(3))
+                .queryParamIfPresent("pageSize", Optional.of(25))
+                .queryParamIfPresent("beerName", Optional.of("Mango Bobs"))
+                .queryParamIfPresent("beerStyle", Optional.empty())
+                .queryParamIfPresent("showInventoryOnhand", Optional.of(true))
+                .build();
+    }
+
+    @Benchmark
+    public URI beerByIdTemplate() {
+        return uriTemplates.beerById(beerId);
+    }
+
+    @Benchmark
+    public URI listBeersTemplate() {
+        return uriTemplates.listBeers(3, 25, "Mango Bobs", null, true);
+    }
+}
@@ -0,0 +1,115 @@
+package guru.springframework.reactivebeerclient.catalog;
+
+import guru.springframework.reactivebeerclient.client.BeerClient;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Local copy of the whole catalog for answering lookups and filtered listings without a remote call.
+ * A refresh walks the catalog page by page through {@link BeerClient#listCompactBeers}, appending each page to a
+ * new {@link BeerCatalogSnapshot} off the heap, and swaps the result in; readers keep whichever snapshot they
+ * obtained and never wait on a refresh. A replaced snapshot stops answering once its last reader has closed it.
+ */
+@Slf4j
+public class BeerCatalog implements AutoCloseable {
+
+    private final BeerClient beerClient;
+    private final int pageSize;
+    private final int prefetch;
+    private final AtomicReference<BeerCatalogSnapshot> snapshot = new AtomicReference<>(BeerCatalogSnapshot.EMPTY);
+
+    public BeerCatalog(BeerClient beerClient, int pageSize, int prefetch) {
+        this.beerClient = beerClient;
+        this.pageSize = pageSize;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * The latest snapshot, empty until the first refresh completes. Use the same snapshot for queries that must
+     * agree with each other, and close it when done with it.
+     */
+    public BeerCatalogSnapshot snapshot() {
+        while (true) {
+            BeerCatalogSnapshot current = snapshot.get();
+            if (current.tryRetain()) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Loads a new snapshot and makes it the current one. The emitted snapshot is the caller's to close.
+     */
+    public Mono<BeerCatalogSnapshot> refresh() {
+        return Mono.using(BeerCatalogSnapshot::builder,
+                        builder -> pages().doOnNext(builder::add).then(Mono.fromCallable(() -> {
+                            if (builder.getSkipped() > 0) {
+                                log.warn("Left {} beers without an id out of the catalog", builder.getSkipped());
+                            }
+                            return builder.build();
+                        })),
+                        BeerCatalogSnapshot.Builder::close)
+                .map(this::install)
+                .doOnDiscard(BeerCatalogSnapshot.class, BeerCatalogSnapshot::close);
+    }
+
+    /**
+     * Refreshes now and then every {@code period}; a tick that comes while a refresh is still running is dropped,
+     * and a failed refresh keeps the previous snapshot.
+     */
+    public Disposable refreshEvery(Duration period) {
+        return Flux.interval(Duration.ZERO, period)
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh()
+                        .doOnNext(loaded -> {
+                            log.debug("Loaded {} beers into the catalog", loaded.size());
+                            loaded.close();
+                        })
+                        .onErrorResume(e -> {
+                            log.warn("Catalog refresh failed, keeping the snapshot loaded at {}",
+                                    snapshot.get().getLoadedAt(), e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    /**
+     * Releases the current snapshot; readers still holding it keep it until they close it.
+     */
+    @Override
+    public void close() {
+        snapshot.getAndSet(BeerCatalogSnapshot.EMPTY).close();
+    }
+
+    /**
+     * The first page tells how many pages the service has, at the page size it actually serves, which may be smaller
+     * than {@code pageSize}. The rest are fetched up to {@code prefetch} ahead, so at most that many pages are on the
+     * heap at a time.
+     */
+    private Flux<CompactBeerDto> pages() {
+        return beerClient.listBeers(0, pageSize, null, null, true).flatMapMany(firstPage -> Flux.fromIterable(firstPage)
+                .map(CompactBeerDto::from)
+                .concatWith(Flux.range(1, Math.max(firstPage.getTotalPages() - 1, 0))
+                        .flatMapSequential(pageNumber -> beerClient.listCompactBeers(pageNumber, pageSize, null, null, true)
+                                .collectList(), prefetch, 1)
+                        .concatMapIterable(Function.<List<CompactBeerDto>>identity())));
+    }
+
+    /**
+     * Swaps {@code next} in, dropping the catalog's reference to the previous snapshot, and adds a reference for
+     * the caller of {@link #refresh()}.
+     */
+    private BeerCatalogSnapshot install(BeerCatalogSnapshot next) {
+        next.tryRetain();
+        snapshot.getAndSet(next).close();
+        return next;
+    }
+}
@@ -0,0 +1,455 @@
+package guru.springframework.reactivebeerclient.catalog;
+
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Immutable, column-per-field copy of the catalog kept in direct buffers outside the Java heap. Rows stay in the
+ * order they were added; row indexes by name (UTF-8 bytes, so that a name prefix selects a contiguous range), id,
+ * UPC and style make every query a binary search or a range scan over these buffers.
+ * <p>
+ * A snapshot is reference counted: whoever obtains one from {@link BeerCatalog} closes it when done, and queries
+ * fail once the last holder has closed it. The buffers themselves are left to the garbage collector, which frees
+ * them once the snapshot is unreachable, so a reader racing the last close can never touch freed memory.
+ */
+public final class BeerCatalogSnapshot implements AutoCloseable {
+
+    private static final BeerStyleEnum[] STYLES = BeerStyleEnum.values();
+    private static final byte NO_STYLE = -1;
+    private static final byte NAME_NULL = 1;
+    private static final byte UPC_NULL = 2;
+
+    static final BeerCatalogSnapshot EMPTY = builder().build();
+
+    private final Instant loadedAt;
+    private final int size;
+    final AtomicInteger references = new AtomicInteger(1);
+
+    private final ByteBuffer idMostSignificantBits;
+    private final ByteBuffer idLeastSignificantBits;
+    private final ByteBuffer priceCents;
+    private final ByteBuffer quantityOnHand;
+    private final ByteBuffer createdEpochMillis;
+    private final ByteBuffer lastUpdatedEpochMillis;
+    private final ByteBuffer styles;
+    private final ByteBuffer nullFlags;
+    private final ByteBuffer nameOffsets;
+    private final ByteBuffer names;
+    private final ByteBuffer upcOffsets;
+    private final ByteBuffer upcs;
+
+    private final ByteBuffer rowsByName;
+    private final ByteBuffer rowsById;
+    private final ByteBuffer rowsByUpc;
+    private final int upcCount;
+    private final ByteBuffer rowsByStyle;
+    private final int[] styleStarts;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builds a snapshot of {@code beers}; see {@link Builder#add(CompactBeerDto)}.
+     */
+    public static BeerCatalogSnapshot of(Iterable<CompactBeerDto> beers) {
+        Builder builder = builder();
+        beers.forEach(builder::add);
+        return builder.build();
+    }
+
+    private BeerCatalogSnapshot(Builder columns) {
+        this.loadedAt = Instant.now();
+        this.idMostSignificantBits = columns.idMostSignificantBits;
+        this.idLeastSignificantBits = columns.idLeastSignificantBits;
+        this.priceCents = columns.priceCents;
+        this.quantityOnHand = columns.quantityOnHand;
+        this.createdEpochMillis = columns.createdEpochMillis;
+        this.lastUpdatedEpochMillis = columns.lastUpdatedEpochMillis;
+        this.styles = columns.styles;
+        this.nullFlags = columns.nullFlags;
+        this.nameOffsets = columns.nameOffsets;
+        this.names = columns.names;
+        this.upcOffsets = columns.upcOffsets;
+        this.upcs = columns.upcs;
+
+        int rows = columns.rows;
+        int[] byId = new int[rows];
+        Arrays.setAll(byId, row -> row);
+        RowSort.sort(byId, (a, b) -> {
+            int cmp = compareIds(a, b);
+            return cmp != 0 ? cmp : Integer.compare(a, b);
+        });
+        int live = 0;
+        for (int i = 0; i < rows; i++) {
+            if (i + 1 == rows || compareIds(byId[i], byId[i + 1]) != 0) {
+                byId[live++] = byId[i];
+            }
+        }
+        this.size = live;
+        this.rowsById = ints(Arrays.copyOf(byId, live));
+
+        int[] byName = Arrays.copyOf(byId, live);
+        RowSort.sort(byName, (a, b) -> compare(names, nameOffsets, a, names, nameOffsets, b));
+        this.rowsByName = ints(byName);
+
+        int[] byUpc = Arrays.stream(byId, 0, live).filter(row -> (nullFlags.get(row) & UPC_NULL) == 0).toArray();
+        RowSort.sort(byUpc, (a, b) -> compare(upcs, upcOffsets, a, upcs, upcOffsets, b));
+        this.upcCount = byUpc.length;
+        this.rowsByUpc = ints(byUpc);
+
+        this.styleStarts = new int[STYLES.length + 1];
+        for (int row : byName) {
+            byte style = styles.get(row);
+            if (style != NO_STYLE) {
+                styleStarts[style + 1]++;
+            }
+        }
+        for (int style = 0; style < STYLES.length; style++) {
+            styleStarts[style + 1] += styleStarts[style];
+        }
+        int[] byStyle = new int[styleStarts[STYLES.length]];
+        int[] next = Arrays.copyOf(styleStarts, STYLES.length);
+        for (int row : byName) {
+            byte style = styles.get(row);
+            if (style != NO_STYLE) {
+                byStyle[next[style]++] = row;
+            }
+        }
+        this.rowsByStyle = ints(byStyle);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public Optional<CompactBeerDto> findById(UUID id) {
+        checkOpen();
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int row = index(rowsById, mid);
+            int cmp = Long.compare(longAt(idMostSignificantBits, row), msb);
+            if (cmp == 0) {
+                cmp = Long.compare(longAt(idLeastSignificantBits, row), lsb);
+            }
+            if (cmp == 0) {
+                return Optional.of(row(row));
+            } else if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<CompactBeerDto> findByUpc(String upc) {
+        checkOpen();
+        byte[] key = upc.getBytes(UTF_8);
+        int low = 0;
+        int high = upcCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int row = index(rowsByUpc, mid);
+            int cmp = compare(upcs, upcOffsets, row, key, false);
+            if (cmp == 0) {
+                return Optional.of(row(row));
+            } else if (cmp < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Beers whose name starts with {@code namePrefix} (case-sensitive) and whose style is {@code beerStyle},
+     * ordered by name. Either filter may be {@code null} to leave it out.
+     */
+    public Page<CompactBeerDto> find(String namePrefix, BeerStyleEnum beerStyle, int pageNumber, int pageSize) {
+        checkOpen();
+        ByteBuffer rows = rowsByName;
+        int from = 0;
+        int to = size;
+        if (namePrefix != null && !namePrefix.isEmpty()) {
+            byte[] prefix = namePrefix.getBytes(UTF_8);
+            from = firstNameAtOrAbove(prefix, false);
+            to = firstNameAtOrAbove(prefix, true);
+        } else if (beerStyle != null) {
+            rows = rowsByStyle;
+            from = styleStarts[beerStyle.ordinal()];
+            to = styleStarts[beerStyle.ordinal() + 1];
+        }
+        boolean filterStyle = beerStyle != null && rows == rowsByName;
+
+        long offset = (long) pageNumber * pageSize;
+        List<CompactBeerDto> content = new ArrayList<>(Math.min(pageSize, to - from));
+        long total;
+        if (filterStyle) {
+            total = 0;
+            for (int i = from; i < to; i++) {
+                int row = index(rows, i);
+                if (styles.get(row) == beerStyle.ordinal()) {
+                    if (total >= offset && content.size() < pageSize) {
+                        content.add(row(row));
+                    }
+                    total++;
+                }
+            }
+        } else {
+            total = to - from;
+            for (long i = from + offset; i < to && content.size() < pageSize; i++) {
+                content.add(row(index(rows, (int) i)));
+            }
+        }
+        return new PageImpl<>(content, PageRequest.of(pageNumber, pageSize), total);
+    }
+
+    /**
+     * Drops one reference; after the last one, queries fail. {@link #EMPTY} is not reference counted, so closing it
+     * does nothing.
+     */
+    @Override
+    public void close() {
+        if (this == EMPTY) {
+            return;
+        }
+        if (references.decrementAndGet() < 0) {
+            throw new IllegalStateException("Catalog snapshot closed more often than it was obtained");
+        }
+    }
+
+    /**
+     * Adds a reference unless the snapshot has already been closed by its last holder. {@link #EMPTY} is always
+     * available and keeps no count.
+     */
+    boolean tryRetain() {
+        if (this == EMPTY) {
+            return true;
+        }
+        for (int count = references.get(); count > 0; count = references.get()) {
+            if (count == Integer.MAX_VALUE) {
+                throw new IllegalStateException("Catalog snapshot loaded at " + loadedAt + " has too many holders");
+            }
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkOpen() {
+        if (this != EMPTY && references.get() <= 0) {
+            throw new IllegalStateException("Catalog snapshot loaded at " + loadedAt + " has been closed");
+        }
+    }
+
+    /**
+     * First position in name order whose name, cut to the prefix length, is at or (with {@code above}) past
+     * {@code prefix}.
+     */
+    private int firstNameAtOrAbove(byte[] prefix, boolean above) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(names, nameOffsets, index(rowsByName, mid), prefix, true);
+            if (cmp < 0 || (above && cmp == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compareIds(int row, int otherRow) {
+        int cmp = Long.compare(longAt(idMostSignificantBits, row), longAt(idMostSignificantBits, otherRow));
+        return cmp != 0 ? cmp : Long.compare(longAt(idLeastSignificantBits, row), longAt(idLeastSignificantBits, otherRow));
+    }
+
+    private static int compare(ByteBuffer values, ByteBuffer offsets, int row, byte[] key, boolean prefixOnly) {
+        int start = index(offsets, row);
+        int length = index(offsets, row + 1) - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(values.get(start + i), key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        if (prefixOnly && length >= key.length) {
+            return 0;
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private static int compare(ByteBuffer values, ByteBuffer offsets, int row,
+                               ByteBuffer otherValues, ByteBuffer otherOffsets, int otherRow) {
+        int start = index(offsets, row);
+        int length = index(offsets, row + 1) - start;
+        int otherStart = index(otherOffsets, otherRow);
+        int otherLength = index(otherOffsets, otherRow + 1) - otherStart;
+        int common = Math.min(length, otherLength);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(values.get(start + i), otherValues.get(otherStart + i));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, otherLength);
+    }
+
+    private CompactBeerDto row(int row) {
+        byte flags = nullFlags.get(row);
+        byte style = styles.get(row);
+        return new CompactBeerDto(longAt(idMostSignificantBits, row), longAt(idLeastSignificantBits, row),
+                (flags & NAME_NULL) != 0 ? null : string(names, nameOffsets, row),
+                style == NO_STYLE ? null : STYLES[style],
+                (flags & UPC_NULL) != 0 ? null : string(upcs, upcOffsets, row),
+                longAt(priceCents, row), index(quantityOnHand, row), longAt(createdEpochMillis, row),
+                longAt(lastUpdatedEpochMillis, row));
+    }
+
+    private static String string(ByteBuffer values, ByteBuffer offsets, int row) {
+        int start = index(offsets, row);
+        byte[] bytes = new byte[index(offsets, row + 1) - start];
+        values.duplicate().position(start).get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static int index(ByteBuffer ints, int position) {
+        return ints.getInt(position * Integer.BYTES);
+    }
+
+    private static long longAt(ByteBuffer longs, int position) {
+        return longs.getLong(position * Long.BYTES);
+    }
+
+    private static ByteBuffer ints(int[] values) {
+        ByteBuffer buffer = DirectBuffers.allocate(values.length * Integer.BYTES);
+        buffer.asIntBuffer().put(values);
+        return buffer;
+    }
+
+    /**
+     * Appends beers to growing off-heap columns, so a catalog can be loaded page by page without holding it on the
+     * heap. Beers without an id are skipped; when an id is added more than once, the last one wins.
+     * {@link #build()} hands the columns to the snapshot; {@link #close()} drops them if the build never happens.
+     */
+    public static final class Builder implements AutoCloseable {
+
+        private static final int INITIAL_ROWS = 64;
+
+        private int rows;
+        private int skipped;
+        private ByteBuffer idMostSignificantBits = DirectBuffers.allocate(INITIAL_ROWS * Long.BYTES);
+        private ByteBuffer idLeastSignificantBits = DirectBuffers.allocate(INITIAL_ROWS * Long.BYTES);
+        private ByteBuffer priceCents = DirectBuffers.allocate(INITIAL_ROWS * Long.BYTES);
+        private ByteBuffer quantityOnHand = DirectBuffers.allocate(INITIAL_ROWS * Integer.BYTES);
+        private ByteBuffer createdEpochMillis = DirectBuffers.allocate(INITIAL_ROWS * Long.BYTES);
+        private ByteBuffer lastUpdatedEpochMillis = DirectBuffers.allocate(INITIAL_ROWS * Long.BYTES);
+        private ByteBuffer styles = DirectBuffers.allocate(INITIAL_ROWS);
+        private ByteBuffer nullFlags = DirectBuffers.allocate(INITIAL_ROWS);
+        private ByteBuffer nameOffsets = DirectBuffers.allocate((INITIAL_ROWS + 1) * Integer.BYTES).putInt(0);
+        private ByteBuffer names = DirectBuffers.allocate(INITIAL_ROWS * 16);
+        private ByteBuffer upcOffsets = DirectBuffers.allocate((INITIAL_ROWS + 1) * Integer.BYTES).putInt(0);
+        private ByteBuffer upcs = DirectBuffers.allocate(INITIAL_ROWS * 16);
+
+        private Builder() {
+        }
+
+        public Builder add(CompactBeerDto beer) {
+            if (idMostSignificantBits == null) {
+                throw new IllegalStateException("Builder has already been built or closed");
+            }
+            if (!beer.hasId()) {
+                skipped++;
+                return this;
+            }
+            idMostSignificantBits = ensure(idMostSignificantBits, Long.BYTES).putLong(beer.getIdMostSignificantBits());
+            idLeastSignificantBits = ensure(idLeastSignificantBits, Long.BYTES).putLong(beer.getIdLeastSignificantBits());
+            priceCents = ensure(priceCents, Long.BYTES).putLong(beer.getPriceCents());
+            quantityOnHand = ensure(quantityOnHand, Integer.BYTES).putInt(beer.getQuantityOnHand());
+            createdEpochMillis = ensure(createdEpochMillis, Long.BYTES).putLong(beer.getCreatedEpochMillis());
+            lastUpdatedEpochMillis = ensure(lastUpdatedEpochMillis, Long.BYTES).putLong(beer.getLastUpdatedEpochMillis());
+            styles = ensure(styles, 1).put(beer.getBeerStyle() == null ? NO_STYLE : (byte) beer.getBeerStyle().ordinal());
+            nullFlags = ensure(nullFlags, 1)
+                    .put((byte) ((beer.getBeerName() == null ? NAME_NULL : 0) | (beer.getUpc() == null ? UPC_NULL : 0)));
+            byte[] name = utf8(beer.getBeerName());
+            names = ensure(names, name.length).put(name);
+            nameOffsets = ensure(nameOffsets, Integer.BYTES).putInt(names.position());
+            byte[] upc = utf8(beer.getUpc());
+            upcs = ensure(upcs, upc.length).put(upc);
+            upcOffsets = ensure(upcOffsets, Integer.BYTES).putInt(upcs.position());
+            rows++;
+            return this;
+        }
+
+        /**
+         * Beers left out of the snapshot for lacking an id.
+         */
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public BeerCatalogSnapshot build() {
+            if (idMostSignificantBits == null) {
+                throw new IllegalStateException("Builder has already been built or closed");
+            }
+            BeerCatalogSnapshot snapshot = new BeerCatalogSnapshot(this);
+            idMostSignificantBits = null;
+            return snapshot;
+        }
+
+        /**
+         * Drops the columns unless they have been handed to a snapshot, leaving them to the garbage collector.
+         */
+        @Override
+        public void close() {
+            idMostSignificantBits = null;
+            idLeastSignificantBits = null;
+            priceCents = null;
+            quantityOnHand = null;
+            createdEpochMillis = null;
+            lastUpdatedEpochMillis = null;
+            styles = null;
+            nullFlags = null;
+            nameOffsets = null;
+            names = null;
+            upcOffsets = null;
+            upcs = null;
+        }
+
+        private static ByteBuffer ensure(ByteBuffer buffer, int bytes) {
+            return buffer.remaining() >= bytes ? buffer : DirectBuffers.grow(buffer, buffer.position() + bytes);
+        }
+
+        private static byte[] utf8(String value) {
+            return value == null ? new byte[0] : value.getBytes(UTF_8);
+        }
+    }
+}
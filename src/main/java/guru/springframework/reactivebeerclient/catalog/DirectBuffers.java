@@ -0,0 +1,31 @@
+package guru.springframework.reactivebeerclient.catalog;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Allocates the direct buffers behind a {@link BeerCatalogSnapshot}. Their memory is returned by the garbage
+ * collector once a buffer is unreachable; it is never freed explicitly, since a reader could still be using it.
+ */
+final class DirectBuffers {
+
+    private DirectBuffers() {
+    }
+
+    static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Copies the written part of {@code buffer} into one at least {@code minimumCapacity} large.
+     */
+    static ByteBuffer grow(ByteBuffer buffer, int minimumCapacity) {
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(minimumCapacity, 2L * buffer.capacity()));
+        if (capacity < minimumCapacity) {
+            throw new IllegalStateException("Catalog column exceeds " + capacity + " bytes");
+        }
+        ByteBuffer grown = allocate(capacity);
+        grown.put(buffer.flip());
+        return grown;
+    }
+}
@@ -0,0 +1,50 @@
+package guru.springframework.reactivebeerclient.catalog;
+
+/**
+ * Stable merge sort of row numbers by a comparison over the rows, without boxing them.
+ */
+final class RowSort {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    @FunctionalInterface
+    interface RowComparator {
+
+        int compare(int row, int otherRow);
+    }
+
+    private RowSort() {
+    }
+
+    static void sort(int[] rows, RowComparator comparator) {
+        int[] scratch = rows.clone();
+        mergeSort(scratch, rows, 0, rows.length, comparator);
+    }
+
+    /**
+     * Sorts {@code from..to} of {@code source} into {@code target}; both start out holding the same rows.
+     */
+    private static void mergeSort(int[] source, int[] target, int from, int to, RowComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                int row = target[i];
+                int j = i - 1;
+                for (; j >= from && comparator.compare(target[j], row) > 0; j--) {
+                    target[j + 1] = target[j];
+                }
+                target[j + 1] = row;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(target, source, from, mid, comparator);
+        mergeSort(target, source, mid, to, comparator);
+        for (int i = from, left = from, right = mid; i < to; i++) {
+            if (right >= to || (left < mid && comparator.compare(source[left], source[right]) <= 0)) {
+                target[i] = source[left++];
+            } else {
+                target[i] = source[right++];
+            }
+        }
+    }
+}
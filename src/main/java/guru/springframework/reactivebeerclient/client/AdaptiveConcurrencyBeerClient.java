@@ -0,0 +1,123 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.config.WebClientConfigProperties;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import guru.springframework.reactivebeerclient.model.BulkResult;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import org.reactivestreams.Publisher;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static guru.springframework.reactivebeerclient.client.BeerClientImpl.lookupAll;
+
+/**
+ * Keeps the number of requests in flight to another {@link BeerClient} under a limit that follows the upstream's
+ * capacity instead of a fixed number (see {@link WebClientConfigProperties.ConcurrencyLimit}). Calls over the limit
+ * are queued or rejected with {@link ConcurrencyLimitExceededException}, depending on the policy. Every single
+ * request goes through the limit, as do the batch lookups built from them here; page walks and bulk writes are
+ * passed through with their own concurrency bound.
+ */
+public class AdaptiveConcurrencyBeerClient implements BeerClient {
+
+    private final BeerClient delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public AdaptiveConcurrencyBeerClient(BeerClient delegate, WebClientConfigProperties.ConcurrencyLimit settings) {
+        this.delegate = delegate;
+        this.limiter = new AdaptiveConcurrencyLimiter(settings);
+    }
+
+    public int getLimit() {
+        return limiter.getLimit();
+    }
+
+    public int getInFlight() {
+        return limiter.getInFlight();
+    }
+
+    public int getQueued() {
+        return limiter.getQueued();
+    }
+
+    @Override
+    public Mono<BeerDto> getBeerById(UUID id) {
+        return limiter.limit(() -> delegate.getBeerById(id));
+    }
+
+    @Override
+    public Mono<BeerDto> getBeerByUPC(String upc) {
+        return limiter.limit(() -> delegate.getBeerByUPC(upc));
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByIds(Publisher<UUID> ids, int concurrency, boolean ordered) {
+        return lookupAll(ids, this::getBeerById, concurrency, ordered);
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByUPCs(Publisher<String> upcs, int concurrency, boolean ordered) {
+        return lookupAll(upcs, this::getBeerByUPC, concurrency, ordered);
+    }
+
+    @Override
+    public Mono<BeerPagedList> listBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                         Boolean showInventoryOnhand) {
+        return limiter.limit(() -> delegate.listBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand));
+    }
+
+    @Override
+    public Flux<BeerDto> listBeersStreaming(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                            Boolean showInventoryOnhand) {
+        return limiter.limitMany(() -> delegate.listBeersStreaming(pageNumber, pageSize, beerName, beerStyle,
+                showInventoryOnhand));
+    }
+
+    @Override
+    public Flux<CompactBeerDto> listCompactBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                                 Boolean showInventoryOnhand) {
+        return limiter.limitMany(() -> delegate.listCompactBeers(pageNumber, pageSize, beerName, beerStyle,
+                showInventoryOnhand));
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeers(Integer pageSize, String beerName, String beerStyle,
+                                        Boolean showInventoryOnhand, int prefetch) {
+        return delegate.streamAllBeers(pageSize, beerName, beerStyle, showInventoryOnhand, prefetch);
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeersInParallel(Integer pageSize, String beerName, String beerStyle,
+                                                  Boolean showInventoryOnhand, int concurrency, boolean ordered) {
+        return delegate.streamAllBeersInParallel(pageSize, beerName, beerStyle, showInventoryOnhand, concurrency,
+                ordered);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> createBeer(BeerDto beerDto) {
+        return limiter.limit(() -> delegate.createBeer(beerDto));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> updateBeer(UUID uuid, BeerDto beerDto) {
+        return limiter.limit(() -> delegate.updateBeer(uuid, beerDto));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> deleteBeerById(UUID id) {
+        return limiter.limit(() -> delegate.deleteBeerById(id));
+    }
+
+    @Override
+    public Flux<BulkResult> createBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return delegate.createBeers(beers, concurrency, requestsPerSecond);
+    }
+
+    @Override
+    public Flux<BulkResult> updateBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return delegate.updateBeers(beers, concurrency, requestsPerSecond);
+    }
+}
@@ -0,0 +1,193 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.config.WebClientConfigProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.OverloadPolicy.SHED;
+
+/**
+ * AIMD concurrency limit: calls hold a permit while in flight, the limit grows additively while calls stay close
+ * to the baseline latency and shrinks multiplicatively on slow calls and on upstream errors. One congestion event
+ * shrinks it once: calls that started before the last decrease were already in flight when it was made, so their
+ * slow samples and errors are ignored.
+ */
+class AdaptiveConcurrencyLimiter {
+
+    private enum Outcome {
+        SAMPLE, DROPPED, IGNORED
+    }
+
+    private final WebClientConfigProperties.ConcurrencyLimit settings;
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+    private long baselineNanos = Long.MAX_VALUE;
+    private long windowMinNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private boolean decreased;
+    private long lastDecreaseNanos;
+
+    AdaptiveConcurrencyLimiter(WebClientConfigProperties.ConcurrencyLimit settings) {
+        this.settings = settings;
+        this.limit = settings.getInitialLimit();
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    /**
+     * Runs {@code call} under a permit, feeding its latency and outcome back into the limit.
+     */
+    <T> Mono<T> limit(Supplier<Mono<T>> call) {
+        return Mono.usingWhen(acquire(), permit -> call.get(),
+                permit -> Mono.fromRunnable(() -> release(permit, Outcome.SAMPLE)),
+                (permit, e) -> Mono.fromRunnable(() -> release(permit, outcome(e))),
+                permit -> Mono.fromRunnable(() -> release(permit, Outcome.IGNORED)));
+    }
+
+    /**
+     * Runs a streaming call under a permit. Its duration depends on the consumer, so it only counts for errors.
+     */
+    <T> Flux<T> limitMany(Supplier<? extends Publisher<T>> call) {
+        return Flux.usingWhen(acquire(), permit -> call.get(),
+                permit -> Mono.fromRunnable(() -> release(permit, Outcome.IGNORED)),
+                (permit, e) -> Mono.fromRunnable(() -> release(permit, outcome(e) == Outcome.DROPPED ? Outcome.DROPPED : Outcome.IGNORED)),
+                permit -> Mono.fromRunnable(() -> release(permit, Outcome.IGNORED)));
+    }
+
+    private Mono<Permit> acquire() {
+        Mono<Permit> permit = Mono.create(sink -> {
+            Waiter waiter;
+            synchronized (this) {
+                if (inFlight < (int) limit) {
+                    inFlight++;
+                    waiter = null;
+                } else if (settings.getPolicy() == SHED || waiters.size() >= settings.getMaxQueueSize()) {
+                    sink.error(new ConcurrencyLimitExceededException("Concurrency limit of " + (int) limit + " reached"));
+                    return;
+                } else {
+                    waiter = new Waiter(sink);
+                    waiters.add(waiter);
+                }
+            }
+            if (waiter == null) {
+                sink.success(new Permit());
+            } else {
+                sink.onCancel(() -> {
+                    if (waiter.claim()) {
+                        synchronized (this) {
+                            waiters.remove(waiter);
+                        }
+                    }
+                });
+            }
+        });
+        return permit.timeout(settings.getMaxQueueTime())
+                .onErrorMap(TimeoutException.class, e -> new ConcurrencyLimitExceededException(
+                        "No concurrency slot freed up within " + settings.getMaxQueueTime()))
+                .doOnDiscard(Permit.class, discarded -> release(discarded, Outcome.IGNORED));
+    }
+
+    private void release(Permit permit, Outcome outcome) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        long rttNanos = System.nanoTime() - permit.startNanos;
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            if (outcome == Outcome.SAMPLE) {
+                sample(permit.startNanos, rttNanos);
+            } else if (outcome == Outcome.DROPPED) {
+                decrease(permit.startNanos);
+            }
+            inFlight--;
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                Waiter waiter = waiters.poll();
+                if (waiter.claim()) {
+                    inFlight++;
+                    granted.add(waiter);
+                }
+            }
+        }
+        granted.forEach(waiter -> waiter.sink.success(new Permit()));
+    }
+
+    private void sample(long startNanos, long rttNanos) {
+        windowMinNanos = Math.min(windowMinNanos, rttNanos);
+        if (++windowSamples >= settings.getBaselineWindowSize() || baselineNanos == Long.MAX_VALUE) {
+            baselineNanos = windowMinNanos;
+        }
+        if (windowSamples >= settings.getBaselineWindowSize()) {
+            windowMinNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        }
+        if (rttNanos > baselineNanos * settings.getLatencyTolerance()) {
+            decrease(startNanos);
+        } else if (inFlight * 2 >= limit) {
+            // only grow while the limit is actually being used
+            limit = Math.min(settings.getMaxLimit(), limit + 1 / limit);
+        }
+    }
+
+    private void decrease(long startNanos) {
+        if (decreased && startNanos - lastDecreaseNanos < 0) {
+            return;
+        }
+        limit = Math.max(settings.getMinLimit(), limit * settings.getBackoffRatio());
+        decreased = true;
+        lastDecreaseNanos = System.nanoTime();
+    }
+
+    private static Outcome outcome(Throwable e) {
+        if (ResilientBeerClient.isTransient(e)) {
+            return Outcome.DROPPED;
+        }
+        return e instanceof WebClientResponseException ? Outcome.SAMPLE : Outcome.IGNORED;
+    }
+
+    private static final class Permit {
+
+        final long startNanos = System.nanoTime();
+        final AtomicBoolean released = new AtomicBoolean();
+    }
+
+    private static final class Waiter {
+
+        final MonoSink<Permit> sink;
+        final AtomicInteger state = new AtomicInteger();
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * Either the grant or the cancellation wins, never both.
+         */
+        boolean claim() {
+            return state.compareAndSet(0, 1);
+        }
+    }
+}
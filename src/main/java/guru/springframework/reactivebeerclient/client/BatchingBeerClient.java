@@ -0,0 +1,249 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import guru.springframework.reactivebeerclient.model.BulkResult;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import org.reactivestreams.Publisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static guru.springframework.reactivebeerclient.client.BeerClientImpl.lookupAll;
+import static guru.springframework.reactivebeerclient.config.BeerClientMetricsFilter.OPERATION_ATTRIBUTE;
+
+/**
+ * Collects {@code getBeerById} calls made within {@code window} of each other, up to {@code maxBatchSize}, into a
+ * single bulk lookup and hands each caller its own beer. Ids asked for more than once in a batch are looked up
+ * once, and ids the bulk lookup does not return fail with {@link WebClientResponseException.NotFound}, as a single
+ * lookup would.
+ * <p>
+ * Only a server bulk endpoint (see {@link #bulkEndpoint(WebClient, URI)}) saves round trips. Without one, every id
+ * of a batch is looked up through the delegate at the same time, each caller getting its own outcome; that only
+ * spares the calls for ids asked for twice within the window.
+ * <p>
+ * Up to {@code maxConcurrentBatches} bulk lookups run at a time, and at most {@link #MAX_QUEUED_BATCHES} closed
+ * batches wait behind them; the callers of batches beyond that fail right away. Lookups still waiting when the client
+ * is disposed, or made afterwards, fail too.
+ */
+public class BatchingBeerClient implements BeerClient, Disposable {
+
+    static final int MAX_QUEUED_BATCHES = 256;
+
+    private final BeerClient delegate;
+    private final Function<List<UUID>, Flux<BeerDto>> bulkLookup;
+    private final Set<Lookup> pending = ConcurrentHashMap.newKeySet();
+    private final Disposable batches;
+
+    private FluxSink<Lookup> lookups;
+    private volatile Throwable stopped;
+
+    public BatchingBeerClient(BeerClient delegate, Duration window, int maxBatchSize, int maxConcurrentBatches) {
+        this(delegate, window, maxBatchSize, maxConcurrentBatches, null);
+    }
+
+    /**
+     * @param bulkLookup {@code null} to look the ids of a batch up one by one through {@code delegate}
+     */
+    public BatchingBeerClient(BeerClient delegate, Duration window, int maxBatchSize, int maxConcurrentBatches,
+                              @Nullable Function<List<UUID>, Flux<BeerDto>> bulkLookup) {
+        this.delegate = delegate;
+        this.bulkLookup = bulkLookup;
+        this.batches = Flux.<Lookup>create(sink -> this.lookups = sink)
+                .bufferTimeout(maxBatchSize, window)
+                .onBackpressureBuffer(MAX_QUEUED_BATCHES, batch -> batch.forEach(lookup -> lookup.error(
+                        new IllegalStateException("More than " + MAX_QUEUED_BATCHES + " batches are waiting for a bulk lookup"))),
+                        BufferOverflowStrategy.DROP_LATEST)
+                .flatMap(this::dispatch, maxConcurrentBatches)
+                .subscribe(null, e -> stop(new IllegalStateException("Batching stopped", e)));
+    }
+
+    /**
+     * Bulk lookup through an endpoint that takes a JSON array of ids in a {@code POST} and answers with the array
+     * of beers it found.
+     */
+    public static Function<List<UUID>, Flux<BeerDto>> bulkEndpoint(WebClient webClient, URI uri) {
+        return ids -> webClient.post().uri(uri).contentType(MediaType.APPLICATION_JSON).bodyValue(ids)
+                .attribute(OPERATION_ATTRIBUTE, "getBeersByIdsBulk").retrieve().bodyToFlux(BeerDto.class);
+    }
+
+    @Override
+    public Mono<BeerDto> getBeerById(UUID id) {
+        return Mono.create(sink -> {
+            Lookup lookup = new Lookup(id, sink);
+            pending.add(lookup);
+            Throwable failure = stopped;
+            if (failure != null) {
+                lookup.error(failure);
+            } else {
+                lookups.next(lookup);
+            }
+        });
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByIds(Publisher<UUID> ids, int concurrency, boolean ordered) {
+        return lookupAll(ids, this::getBeerById, concurrency, ordered);
+    }
+
+    @Override
+    public Mono<BeerDto> getBeerByUPC(String upc) {
+        return delegate.getBeerByUPC(upc);
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByUPCs(Publisher<String> upcs, int concurrency, boolean ordered) {
+        return delegate.getBeersByUPCs(upcs, concurrency, ordered);
+    }
+
+    @Override
+    public Mono<BeerPagedList> listBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                         Boolean showInventoryOnhand) {
+        return delegate.listBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<BeerDto> listBeersStreaming(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                            Boolean showInventoryOnhand) {
+        return delegate.listBeersStreaming(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<CompactBeerDto> listCompactBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                                 Boolean showInventoryOnhand) {
+        return delegate.listCompactBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeers(Integer pageSize, String beerName, String beerStyle,
+                                        Boolean showInventoryOnhand, int prefetch) {
+        return delegate.streamAllBeers(pageSize, beerName, beerStyle, showInventoryOnhand, prefetch);
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeersInParallel(Integer pageSize, String beerName, String beerStyle,
+                                                  Boolean showInventoryOnhand, int concurrency, boolean ordered) {
+        return delegate.streamAllBeersInParallel(pageSize, beerName, beerStyle, showInventoryOnhand, concurrency,
+                ordered);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> createBeer(BeerDto beerDto) {
+        return delegate.createBeer(beerDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> updateBeer(UUID uuid, BeerDto beerDto) {
+        return delegate.updateBeer(uuid, beerDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> deleteBeerById(UUID id) {
+        return delegate.deleteBeerById(id);
+    }
+
+    @Override
+    public Flux<BulkResult> createBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return delegate.createBeers(beers, concurrency, requestsPerSecond);
+    }
+
+    @Override
+    public Flux<BulkResult> updateBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return delegate.updateBeers(beers, concurrency, requestsPerSecond);
+    }
+
+    /**
+     * Stops batching; lookups still waiting and lookups made afterwards fail.
+     */
+    @Override
+    public void dispose() {
+        batches.dispose();
+        stop(new IllegalStateException("BatchingBeerClient is disposed"));
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return batches.isDisposed();
+    }
+
+    private void stop(Throwable failure) {
+        stopped = failure;
+        List.copyOf(pending).forEach(lookup -> lookup.error(failure));
+    }
+
+    private Mono<Void> dispatch(List<Lookup> batch) {
+        Map<UUID, List<Lookup>> callers = new LinkedHashMap<>();
+        batch.forEach(lookup -> callers.computeIfAbsent(lookup.id, id -> new ArrayList<>(1)).add(lookup));
+        if (bulkLookup == null) {
+            return Flux.fromIterable(callers.entrySet())
+                    .flatMap(entry -> delegate.getBeerById(entry.getKey())
+                            .doOnNext(beer -> entry.getValue().forEach(lookup -> lookup.success(beer)))
+                            .switchIfEmpty(Mono.fromRunnable(() -> entry.getValue().forEach(Lookup::notFound)))
+                            .onErrorResume(e -> {
+                                entry.getValue().forEach(lookup -> lookup.error(e));
+                                return Mono.empty();
+                            }), callers.size())
+                    .then();
+        }
+        return Flux.defer(() -> bulkLookup.apply(new ArrayList<>(callers.keySet())))
+                .doOnNext(beer -> {
+                    List<Lookup> waiting = callers.remove(beer.getId());
+                    if (waiting != null) {
+                        waiting.forEach(lookup -> lookup.success(beer));
+                    }
+                })
+                .then(Mono.fromRunnable(() -> callers.values().forEach(waiting -> waiting.forEach(Lookup::notFound))))
+                .onErrorResume(e -> {
+                    callers.values().forEach(waiting -> waiting.forEach(lookup -> lookup.error(e)));
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private final class Lookup {
+
+        final UUID id;
+        final MonoSink<BeerDto> sink;
+
+        Lookup(UUID id, MonoSink<BeerDto> sink) {
+            this.id = id;
+            this.sink = sink;
+        }
+
+        void success(BeerDto beer) {
+            pending.remove(this);
+            sink.success(beer);
+        }
+
+        void notFound() {
+            error(WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), HttpStatus.NOT_FOUND.getReasonPhrase(),
+                    HttpHeaders.EMPTY, new byte[0], null));
+        }
+
+        void error(Throwable e) {
+            pending.remove(this);
+            sink.error(e);
+        }
+    }
+}
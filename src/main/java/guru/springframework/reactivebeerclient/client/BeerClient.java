@@ -2,7 +2,11 @@ package guru.springframework.reactivebeerclient.client;
 
 import guru.springframework.reactivebeerclient.model.BeerDto;
 import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import guru.springframework.reactivebeerclient.model.BulkResult;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import org.reactivestreams.Publisher;
 import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.UUID;
@@ -17,11 +21,71 @@ public interface BeerClient {
     Mono<BeerPagedList> listBeers(Integer pageNumber, Integer pageSize, String beerName,
                                   String beerStyle, Boolean showInventoryOnhand);
 
+    /**
+     * Same query as {@link #listBeers}, but emits the beers of the page while the body is still arriving
+     * instead of buffering and decoding the whole page first. Always requested as JSON.
+     */
+    Flux<BeerDto> listBeersStreaming(Integer pageNumber, Integer pageSize, String beerName,
+                                     String beerStyle, Boolean showInventoryOnhand);
+
+    /**
+     * {@link #listBeersStreaming} decoding each beer into a {@link CompactBeerDto}, for read paths that go
+     * through many beers and do not need the full {@link BeerDto}.
+     */
+    Flux<CompactBeerDto> listCompactBeers(Integer pageNumber, Integer pageSize, String beerName,
+                                          String beerStyle, Boolean showInventoryOnhand);
+
     Mono<ResponseEntity<Void>> createBeer(BeerDto beerDto);
 
     Mono<ResponseEntity<Void>> updateBeer(UUID uuid, BeerDto beerDto);
 
     Mono<ResponseEntity<Void>> deleteBeerById(UUID id);
 
+    /**
+     * Creates every beer with at most {@code concurrency} requests in flight and, when
+     * {@code requestsPerSecond} is positive, no more requests per second than that across all bulk calls
+     * made with the same rate. One result is emitted per beer as its request completes; failed items do not
+     * stop the rest.
+     */
+    Flux<BulkResult> createBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond);
+
+    /**
+     * Bulk counterpart of {@link #updateBeer(UUID, BeerDto)}, each beer being updated under its own id.
+     * Same flow control and per-item results as {@link #createBeers(Publisher, int, int)}.
+     */
+    Flux<BulkResult> updateBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond);
+
     Mono<BeerDto> getBeerByUPC(String upc);
+
+    /**
+     * Looks up every id with at most {@code concurrency} calls in flight, sharing a single call between
+     * lookups of the same id that overlap. Unknown ids are skipped. With {@code ordered} the results follow
+     * the order of {@code ids}, otherwise they are emitted as soon as they arrive.
+     */
+    Flux<BeerDto> getBeersByIds(Publisher<UUID> ids, int concurrency, boolean ordered);
+
+    /**
+     * UPC counterpart of {@link #getBeersByIds(Publisher, int, boolean)}.
+     */
+    Flux<BeerDto> getBeersByUPCs(Publisher<String> upcs, int concurrency, boolean ordered);
+
+    /**
+     * Walks every page of the catalog, keeping at most {@code prefetch} page requests in flight
+     * and only asking for more pages as the downstream consumes the beers already emitted.
+     */
+    Flux<BeerDto> streamAllBeers(Integer pageSize, String beerName, String beerStyle,
+                                 Boolean showInventoryOnhand, int prefetch);
+
+    /**
+     * Walks every page of the catalog, requesting the pages after the first with up to {@code concurrency}
+     * requests in flight. With {@code ordered} the beers follow page order, otherwise each page is emitted as soon
+     * as it arrives.
+     * <p>
+     * Changes while the walk runs are handled as far as offset paging allows: a beer pushed onto the next page by
+     * an insert is emitted once, pages added meanwhile are fetched too, and a page read before a delete is read
+     * again for the beers that slid back onto it. Beers inserted onto a page the walk has already passed are not
+     * seen; use {@code BeerSyncEngine#reconcile()} when every beer must be accounted for.
+     */
+    Flux<BeerDto> streamAllBeersInParallel(Integer pageSize, String beerName, String beerStyle,
+                                           Boolean showInventoryOnhand, int concurrency, boolean ordered);
 }
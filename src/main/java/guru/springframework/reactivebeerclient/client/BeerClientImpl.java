@@ -1,66 +1,273 @@
 package guru.springframework.reactivebeerclient.client;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import guru.springframework.reactivebeerclient.model.BeerDto;
 import guru.springframework.reactivebeerclient.model.BeerPagedList;
-import lombok.AllArgsConstructor;
+import guru.springframework.reactivebeerclient.model.BulkResult;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.github.resilience4j.reactor.ratelimiter.operator.RateLimiterOperator;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.*;
+import static guru.springframework.reactivebeerclient.config.BeerClientMetricsFilter.OPERATION_ATTRIBUTE;
+import static org.springframework.http.HttpStatus.NOT_MODIFIED;
 
 /**
  * Created by jt on 3/13/21.
  */
 @Service
-@AllArgsConstructor
 public class BeerClientImpl implements BeerClient {
 
+    private static final Duration BULK_PERMIT_TIMEOUT = Duration.ofHours(1);
 
     private final WebClient webClient;
 
+    private final ConditionalRequestCache conditionalRequestCache;
+
+    private final BeerUriTemplates uriTemplates;
+
+    private final PagedContentDecoder pagedContentDecoder;
+
+    private final SingleFlight<UUID, BeerDto> beerByIdFlights = new SingleFlight<>();
+
+    private final SingleFlight<String, BeerDto> beerByUpcFlights = new SingleFlight<>();
+
+    private final RateLimiterRegistry bulkRateLimiters = RateLimiterRegistry.ofDefaults();
+
+    /**
+     * @param baseUrl the base URL {@code webClient} was configured with
+     */
+    public BeerClientImpl(WebClient webClient, String baseUrl) {
+        this(webClient, new BeerUriTemplates(baseUrl), ConditionalRequestCache.disabled());
+    }
+
+    public BeerClientImpl(WebClient webClient, BeerUriTemplates uriTemplates,
+                          ConditionalRequestCache conditionalRequestCache) {
+        this(webClient, uriTemplates, conditionalRequestCache, Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    /**
+     * @param objectMapper the mapper the WebClient's JSON codecs use, so that streamed pages decode like
+     *                     aggregated bodies
+     */
+    @Autowired
+    public BeerClientImpl(WebClient webClient, BeerUriTemplates uriTemplates,
+                          ConditionalRequestCache conditionalRequestCache, ObjectMapper objectMapper) {
+        this.webClient = webClient;
+        this.conditionalRequestCache = conditionalRequestCache;
+        this.uriTemplates = uriTemplates;
+        this.pagedContentDecoder = new PagedContentDecoder(objectMapper);
+    }
+
     @Override
     public Mono<BeerDto> getBeerById(UUID id) {
-        return this.webClient.get().uri(uriBuilder -> uriBuilder.path(BEER_V2_URL_BY_BEERID)
-                .queryParamIfPresent("id", Optional.of(id))
-                .build(id)).retrieve().bodyToMono(BeerDto.class);
+        return conditionalGet("beer:" + id, () -> this.webClient.get().uri(uriTemplates.beerById(id))
+                .attribute(OPERATION_ATTRIBUTE, "getBeerById"), BeerDto.class);
     }
 
     @Override
     public Mono<BeerPagedList> listBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle, Boolean showInventoryOnhand) {
-        return this.webClient.get().uri(uriBuilder -> uriBuilder.path(BEER_V2_URL)
-                .queryParamIfPresent("pageNumber", Optional.ofNullable(pageNumber))
-                .queryParamIfPresent("pageSize", Optional.ofNullable(pageSize))
-                .queryParamIfPresent("beerName", Optional.ofNullable(beerName))
-                .queryParamIfPresent("beerStyle", Optional.ofNullable(beerStyle))
-                .queryParamIfPresent("showInventoryOnhand", Optional.ofNullable(showInventoryOnhand))
-                .build()).retrieve().bodyToMono(BeerPagedList.class);
+        String key = "page:" + pageNumber + ':' + pageSize + ':' + beerName + ':' + beerStyle + ':' + showInventoryOnhand;
+        return conditionalGet(key, () -> listBeersRequest(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand),
+                BeerPagedList.class);
+    }
+
+    @Override
+    public Flux<BeerDto> listBeersStreaming(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                            Boolean showInventoryOnhand) {
+        return pagedContentDecoder.decode(this.webClient.get()
+                .uri(uriTemplates.listBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand))
+                .accept(MediaType.APPLICATION_JSON)
+                .attribute(OPERATION_ATTRIBUTE, "listBeersStreaming").retrieve().bodyToFlux(DataBuffer.class), BeerDto.class);
+    }
+
+    @Override
+    public Flux<CompactBeerDto> listCompactBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                                 Boolean showInventoryOnhand) {
+        return pagedContentDecoder.decode(this.webClient.get()
+                .uri(uriTemplates.listBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand))
+                .accept(MediaType.APPLICATION_JSON)
+                .attribute(OPERATION_ATTRIBUTE, "listCompactBeers").retrieve().bodyToFlux(DataBuffer.class), CompactBeerDto.class);
     }
 
     @Override
     public Mono<ResponseEntity<Void>> createBeer(BeerDto beerDto) {
-        return webClient.post().uri(BEER_V2_URL).body(BodyInserters.fromValue(beerDto)).retrieve().toBodilessEntity();
+        return webClient.post().uri(uriTemplates.beers()).body(BodyInserters.fromValue(beerDto))
+                .attribute(OPERATION_ATTRIBUTE, "createBeer").retrieve().toBodilessEntity();
     }
 
     @Override
     public Mono<ResponseEntity<Void>> updateBeer(UUID uuid, BeerDto beerDto) {
-        return webClient.put().uri(uriBuilder -> uriBuilder.path(BEER_V2_URL_BY_BEERID).build(uuid))
-                .body(BodyInserters.fromValue(beerDto)).retrieve().toBodilessEntity();
+        return webClient.put().uri(uriTemplates.beerById(uuid))
+                .body(BodyInserters.fromValue(beerDto)).attribute(OPERATION_ATTRIBUTE, "updateBeer").retrieve().toBodilessEntity();
     }
 
     @Override
     public Mono<ResponseEntity<Void>> deleteBeerById(UUID id) {
-        return webClient.delete().uri(uriBuilder -> uriBuilder.path(BEER_V2_URL_BY_BEERID).build(id))
-                .retrieve().toBodilessEntity();
+        return webClient.delete().uri(uriTemplates.beerById(id))
+                .attribute(OPERATION_ATTRIBUTE, "deleteBeerById").retrieve().toBodilessEntity();
+    }
+
+    @Override
+    public Flux<BulkResult> createBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return bulk(beers, this::createBeer, concurrency, requestsPerSecond);
+    }
+
+    @Override
+    public Flux<BulkResult> updateBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return bulk(beers, beer -> updateBeer(beer.getId(), beer), concurrency, requestsPerSecond);
     }
 
     @Override
     public Mono<BeerDto> getBeerByUPC(String upc) {
-        return webClient.get().uri(uriBuilder -> uriBuilder.path(BEER_V2_URL_BY_UPC).build(upc)).retrieve().bodyToMono(BeerDto.class);
+        return conditionalGet("upc:" + upc, () -> webClient.get().uri(uriTemplates.beerByUpc(upc))
+                .attribute(OPERATION_ATTRIBUTE, "getBeerByUPC"), BeerDto.class);
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByIds(Publisher<UUID> ids, int concurrency, boolean ordered) {
+        return lookupAll(ids, id -> beerByIdFlights.execute(id, this::getBeerById), concurrency, ordered);
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByUPCs(Publisher<String> upcs, int concurrency, boolean ordered) {
+        return lookupAll(upcs, upc -> beerByUpcFlights.execute(upc, this::getBeerByUPC), concurrency, ordered);
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeers(Integer pageSize, String beerName, String beerStyle,
+                                        Boolean showInventoryOnhand, int prefetch) {
+        return walkPage(null, pageSize, beerName, beerStyle, showInventoryOnhand)
+                .flatMapMany(firstPage -> Flux.fromIterable(firstPage.getContent())
+                        .concatWith(firstPage.isLast() ? Flux.empty() :
+                                Flux.range(firstPage.getNumber() + 1, firstPage.getTotalPages() - firstPage.getNumber() - 1)
+                                        .flatMapSequential(pageNumber -> walkPage(pageNumber, pageSize, beerName, beerStyle,
+                                                showInventoryOnhand), prefetch, 1)
+                                        .concatMapIterable(BeerPagedList::getContent, 1)));
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeersInParallel(Integer pageSize, String beerName, String beerStyle,
+                                                  Boolean showInventoryOnhand, int concurrency, boolean ordered) {
+        Function<Integer, Mono<BeerPagedList>> page = pageNumber ->
+                walkPage(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+        return page.apply(null).flatMapMany(firstPage -> {
+            int initialPages = firstPage.getTotalPages();
+            PageWalk walk = new PageWalk(concurrency + 2);
+            Function<BeerPagedList, Flux<BeerDto>> emit = next -> {
+                List<BeerDto> beers = walk.accept(next);
+                return Flux.fromIterable(walk.slidBack(next.getNumber()).entrySet())
+                        .concatMap(slid -> page.apply(slid.getKey())
+                                .flatMapIterable(reread -> walk.acceptTail(reread, slid.getValue())))
+                        .concatWith(Flux.fromIterable(beers));
+            };
+            return emit.apply(firstPage)
+                    .concatWith(pages(Flux.range(1, Math.max(initialPages - 1, 0)), page, emit, concurrency, ordered))
+                    .concatWith(Flux.defer(() -> pages(Flux.range(initialPages,
+                            Math.max(walk.getTotalPages() - initialPages, 0)), page, emit, concurrency, ordered)));
+        });
+    }
+
+    private WebClient.RequestHeadersSpec<?> listBeersRequest(Integer pageNumber, Integer pageSize, String beerName,
+                                                             String beerStyle, Boolean showInventoryOnhand) {
+        return this.webClient.get()
+                .uri(uriTemplates.listBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand))
+                .attribute(OPERATION_ATTRIBUTE, "listBeers");
+    }
+
+    /**
+     * Pages of a catalog walk bypass the {@link ConditionalRequestCache}, which would otherwise end up holding the
+     * whole catalog.
+     */
+    private Mono<BeerPagedList> walkPage(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                         Boolean showInventoryOnhand) {
+        return listBeersRequest(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand).retrieve()
+                .bodyToMono(BeerPagedList.class);
+    }
+
+    /**
+     * GETs through the {@link ConditionalRequestCache}: validators of a previous response are sent along and a
+     * {@code 304} is answered with the value decoded from that response.
+     */
+    private <T> Mono<T> conditionalGet(String key, Supplier<WebClient.RequestHeadersSpec<?>> request, Class<T> type) {
+        if (!conditionalRequestCache.isEnabled()) {
+            return request.get().retrieve().bodyToMono(type);
+        }
+        return Mono.defer(() -> {
+            ConditionalRequestCache.Validated cached = conditionalRequestCache.get(key);
+            WebClient.RequestHeadersSpec<?> spec = request.get();
+            if (cached != null) {
+                spec = spec.headers(cached::applyTo);
+            }
+            return spec.exchangeToMono(response -> {
+                if (cached != null && response.rawStatusCode() == NOT_MODIFIED.value()) {
+                    return response.releaseBody().then(Mono.fromCallable(() -> type.cast(cached.copyOfValue())));
+                }
+                if (response.rawStatusCode() >= 200 && response.rawStatusCode() < 300) {
+                    return response.bodyToMono(type)
+                            .doOnNext(value -> conditionalRequestCache.store(key, response.headers().asHttpHeaders(), value));
+                }
+                return response.createException().flatMap(Mono::error);
+            });
+        });
+    }
+
+    private static Flux<BeerDto> pages(Flux<Integer> pageNumbers, Function<Integer, Mono<BeerPagedList>> page,
+                                       Function<BeerPagedList, Flux<BeerDto>> emit, int concurrency, boolean ordered) {
+        return (ordered ? pageNumbers.flatMapSequential(page, concurrency) : pageNumbers.flatMap(page, concurrency))
+                .concatMap(emit);
+    }
+
+    private RateLimiter bulkRateLimiter(int requestsPerSecond) {
+        return bulkRateLimiters.rateLimiter("bulk-" + requestsPerSecond, RateLimiterConfig.custom()
+                .limitForPeriod(requestsPerSecond)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .timeoutDuration(BULK_PERMIT_TIMEOUT)
+                .build());
+    }
+
+    static <K> Flux<BeerDto> lookupAll(Publisher<K> keys, Function<K, Mono<BeerDto>> lookup,
+                                       int concurrency, boolean ordered) {
+        Function<K, Mono<BeerDto>> lookupSkippingUnknown = key -> lookup.apply(key)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+        return ordered ? Flux.from(keys).flatMapSequential(lookupSkippingUnknown, concurrency)
+                : Flux.from(keys).flatMap(lookupSkippingUnknown, concurrency);
+    }
+
+    /**
+     * Requests of all bulk calls made with the same {@code requestsPerSecond} draw from one token bucket, refilled
+     * every second; they only wait once the bucket is empty.
+     */
+    private Flux<BulkResult> bulk(Publisher<BeerDto> beers, Function<BeerDto, Mono<ResponseEntity<Void>>> call,
+                                  int concurrency, int requestsPerSecond) {
+        Function<BeerDto, Mono<ResponseEntity<Void>>> limitedCall = requestsPerSecond > 0
+                ? beer -> call.apply(beer).transformDeferred(RateLimiterOperator.of(bulkRateLimiter(requestsPerSecond)))
+                : call;
+        return Flux.from(beers).flatMap(beer -> Mono.defer(() -> limitedCall.apply(beer))
+                .map(response -> BulkResult.builder().beer(beer).statusCode(response.getStatusCodeValue())
+                        .location(response.getHeaders().getLocation()).build())
+                .onErrorResume(e -> Mono.just(BulkResult.builder().beer(beer).error(e)
+                        .statusCode(e instanceof WebClientResponseException
+                                ? ((WebClientResponseException) e).getRawStatusCode() : null)
+                        .build())), concurrency);
     }
 }
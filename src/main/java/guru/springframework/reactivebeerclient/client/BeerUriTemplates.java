@@ -0,0 +1,101 @@
+package guru.springframework.reactivebeerclient.client;
+
+import java.net.URI;
+import java.util.UUID;
+
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Request URIs of the beer API. The path templates are resolved once against the configured base URL
+ * ({@code beer.client.base-url}), so rendering a URI is a string concatenation: ids are appended as they are, other
+ * values are percent-encoded (everything but RFC 3986 unreserved characters) and absent query parameters are
+ * skipped.
+ */
+public class BeerUriTemplates {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final String beers;
+    private final URI beersUri;
+    private final String beerByIdPrefix;
+    private final String beerByUpcPrefix;
+
+    public BeerUriTemplates(String baseUrl) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.beers = base + BEER_V2_URL;
+        this.beersUri = URI.create(beers);
+        this.beerByIdPrefix = base + BEER_V2_URL_BY_BEERID.substring(0, BEER_V2_URL_BY_BEERID.indexOf('{'));
+        this.beerByUpcPrefix = base + BEER_V2_URL_BY_UPC.substring(0, BEER_V2_URL_BY_UPC.indexOf('{'));
+    }
+
+    public URI beers() {
+        return beersUri;
+    }
+
+    public URI beerById(UUID id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Beer id must not be null");
+        }
+        return URI.create(beerByIdPrefix.concat(id.toString()));
+    }
+
+    public URI beerByUpc(String upc) {
+        if (upc == null) {
+            throw new IllegalArgumentException("Beer UPC must not be null");
+        }
+        StringBuilder uri = new StringBuilder(beerByUpcPrefix.length() + upc.length() + 8).append(beerByUpcPrefix);
+        return URI.create(appendEncoded(uri, upc).toString());
+    }
+
+    public URI listBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                         Boolean showInventoryOnhand) {
+        if (pageNumber == null && pageSize == null && beerName == null && beerStyle == null && showInventoryOnhand == null) {
+            return beersUri;
+        }
+        StringBuilder uri = new StringBuilder(beers.length() + 128).append(beers);
+        int start = uri.length();
+        if (pageNumber != null) {
+            separator(uri, start).append("pageNumber=").append(pageNumber.intValue());
+        }
+        if (pageSize != null) {
+            separator(uri, start).append("pageSize=").append(pageSize.intValue());
+        }
+        if (beerName != null) {
+            appendEncoded(separator(uri, start).append("beerName="), beerName);
+        }
+        if (beerStyle != null) {
+            appendEncoded(separator(uri, start).append("beerStyle="), beerStyle);
+        }
+        if (showInventoryOnhand != null) {
+            separator(uri, start).append("showInventoryOnhand=").append(showInventoryOnhand.booleanValue());
+        }
+        return URI.create(uri.toString());
+    }
+
+    private static StringBuilder separator(StringBuilder uri, int start) {
+        return uri.append(uri.length() == start ? '?' : '&');
+    }
+
+    static StringBuilder appendEncoded(StringBuilder target, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!isUnreserved(value.charAt(i))) {
+                for (byte b : value.substring(i).getBytes(UTF_8)) {
+                    if (isUnreserved((char) b)) {
+                        target.append((char) b);
+                    } else {
+                        target.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+                    }
+                }
+                return target;
+            }
+            target.append(value.charAt(i));
+        }
+        return target;
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+}
@@ -0,0 +1,141 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Synchronous view of a {@link BeerClient} for callers that block. Each call waits at most {@code timeout} and
+ * cancels the underlying exchange when it gives up or the calling thread is interrupted. At most
+ * {@code maxConcurrentCalls} calls wait at the same time, and calls from Reactor or Netty event-loop threads are
+ * refused, since blocking there would stall every other exchange on the loop.
+ * <p>
+ * {@link #submit(Function)} runs blocking work on the facade's own executor: one virtual thread per task on
+ * JVMs that have them, otherwise a pool of {@code maxConcurrentCalls} threads.
+ */
+public class BlockingBeerClient implements Closeable {
+
+    private final BeerClient delegate;
+    private final Duration timeout;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    public BlockingBeerClient(BeerClient delegate, int maxConcurrentCalls, Duration timeout) {
+        this(delegate, timeout, new Semaphore(maxConcurrentCalls), newExecutor(maxConcurrentCalls));
+    }
+
+    private BlockingBeerClient(BeerClient delegate, Duration timeout, Semaphore permits, ExecutorService executor) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.permits = permits;
+        this.executor = executor;
+    }
+
+    /**
+     * The same facade with another per-call timeout, sharing the concurrency bound and the executor.
+     */
+    public BlockingBeerClient withTimeout(Duration timeout) {
+        return new BlockingBeerClient(delegate, timeout, permits, executor);
+    }
+
+    public <T> CompletableFuture<T> submit(Function<BlockingBeerClient, T> task) {
+        return CompletableFuture.supplyAsync(() -> task.apply(this), executor);
+    }
+
+    public BeerDto getBeerById(UUID id) {
+        return await(delegate.getBeerById(id));
+    }
+
+    public BeerDto getBeerByUPC(String upc) {
+        return await(delegate.getBeerByUPC(upc));
+    }
+
+    public List<BeerDto> getBeersByIds(Collection<UUID> ids, int concurrency) {
+        return await(delegate.getBeersByIds(Flux.fromIterable(ids), concurrency, true).collectList());
+    }
+
+    public BeerPagedList listBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                   Boolean showInventoryOnhand) {
+        return await(delegate.listBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand));
+    }
+
+    public ResponseEntity<Void> createBeer(BeerDto beerDto) {
+        return await(delegate.createBeer(beerDto));
+    }
+
+    public ResponseEntity<Void> updateBeer(UUID uuid, BeerDto beerDto) {
+        return await(delegate.updateBeer(uuid, beerDto));
+    }
+
+    public ResponseEntity<Void> deleteBeerById(UUID id) {
+        return await(delegate.deleteBeerById(id));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T await(Mono<T> call) {
+        Thread thread = Thread.currentThread();
+        if (Schedulers.isInNonBlockingThread() || thread instanceof FastThreadLocalThread) {
+            throw new IllegalStateException("Blocking on " + thread.getName() + " is not supported, use BeerClient instead");
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        CompletableFuture<T> result = null;
+        try {
+            if (!permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ConcurrencyLimitExceededException("No blocking call slot freed up within " + timeout);
+            }
+            try {
+                result = call.toFuture();
+                return result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } finally {
+                permits.release();
+            }
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            throw new IllegalStateException("Timeout on blocking read for " + timeout.toMillis() + " ms", e);
+        } catch (InterruptedException e) {
+            if (result != null) {
+                result.cancel(true);
+            }
+            thread.interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the beer service", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static ExecutorService newExecutor(int maxThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("beer-client-blocking-");
+            threadFactory.setDaemon(true);
+            return Executors.newFixedThreadPool(maxThreads, threadFactory);
+        }
+    }
+}
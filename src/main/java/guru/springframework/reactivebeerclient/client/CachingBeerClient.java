@@ -0,0 +1,277 @@
+package guru.springframework.reactivebeerclient.client;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import guru.springframework.reactivebeerclient.model.BulkResult;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import org.reactivestreams.Publisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static guru.springframework.reactivebeerclient.client.BeerClientImpl.lookupAll;
+
+/**
+ * Read-through cache in front of another {@link BeerClient}. Lookups by id and by UPC share their
+ * results, so a beer loaded through one index is served from the other as well. Both indexes are
+ * bounded by size (Caffeine's W-TinyLFU eviction) and expire entries after {@code timeToLive};
+ * updates and deletes made through this client invalidate the affected entries before their result is emitted.
+ * A lookup that completes empty is passed through and not cached.
+ * <p>
+ * Optionally, entries read after {@code refreshAfter} are reloaded in the background while callers keep
+ * getting the cached beer, so hot entries are refreshed before they expire and a failed refresh leaves the
+ * old value in place. Lookups answered with 404 can be remembered for {@code notFoundTimeToLive}, a
+ * separate and usually much shorter TTL; cached misses are replayed as {@code 404} errors carrying the status text,
+ * headers and body of the original response, and creating a beer through this client forgets a cached miss for its
+ * UPC.
+ */
+public class CachingBeerClient implements BeerClient {
+
+    private final BeerClient delegate;
+    private final AsyncLoadingCache<UUID, CachedLookup> beersById;
+    private final AsyncLoadingCache<String, CachedLookup> beersByUpc;
+
+    public CachingBeerClient(BeerClient delegate, long maximumSize, Duration timeToLive) {
+        this(delegate, maximumSize, timeToLive, null, Duration.ZERO);
+    }
+
+    /**
+     * @param refreshAfter       age after which a read triggers a background reload, or {@code null} to only expire
+     * @param notFoundTimeToLive how long a 404 is remembered; {@link Duration#ZERO} disables negative caching
+     */
+    public CachingBeerClient(BeerClient delegate, long maximumSize, Duration timeToLive, Duration refreshAfter,
+                             Duration notFoundTimeToLive) {
+        this(delegate, maximumSize, timeToLive, refreshAfter, notFoundTimeToLive, Ticker.systemTicker());
+    }
+
+    CachingBeerClient(BeerClient delegate, long maximumSize, Duration timeToLive, Duration refreshAfter,
+                      Duration notFoundTimeToLive, Ticker ticker) {
+        this.delegate = delegate;
+        this.beersById = CachingBeerClient.<UUID>cacheBuilder(maximumSize, timeToLive, refreshAfter, notFoundTimeToLive, ticker)
+                .buildAsync((id, executor) -> load(delegate.getBeerById(id), this::indexByUpc));
+        this.beersByUpc = CachingBeerClient.<String>cacheBuilder(maximumSize, timeToLive, refreshAfter, notFoundTimeToLive, ticker)
+                .buildAsync((upc, executor) -> load(delegate.getBeerByUPC(upc), this::indexById));
+    }
+
+    @Override
+    public Mono<BeerDto> getBeerById(UUID id) {
+        return Mono.defer(() -> Mono.fromFuture(beersById.get(id))).flatMap(CachedLookup::replay);
+    }
+
+    @Override
+    public Mono<BeerDto> getBeerByUPC(String upc) {
+        return Mono.defer(() -> Mono.fromFuture(beersByUpc.get(upc))).flatMap(CachedLookup::replay);
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByIds(Publisher<UUID> ids, int concurrency, boolean ordered) {
+        return lookupAll(ids, this::getBeerById, concurrency, ordered);
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByUPCs(Publisher<String> upcs, int concurrency, boolean ordered) {
+        return lookupAll(upcs, this::getBeerByUPC, concurrency, ordered);
+    }
+
+    @Override
+    public Mono<BeerPagedList> listBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                         Boolean showInventoryOnhand) {
+        return delegate.listBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<BeerDto> listBeersStreaming(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                            Boolean showInventoryOnhand) {
+        return delegate.listBeersStreaming(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<CompactBeerDto> listCompactBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                                 Boolean showInventoryOnhand) {
+        return delegate.listCompactBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeers(Integer pageSize, String beerName, String beerStyle,
+                                        Boolean showInventoryOnhand, int prefetch) {
+        return delegate.streamAllBeers(pageSize, beerName, beerStyle, showInventoryOnhand, prefetch);
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeersInParallel(Integer pageSize, String beerName, String beerStyle,
+                                                  Boolean showInventoryOnhand, int concurrency, boolean ordered) {
+        return delegate.streamAllBeersInParallel(pageSize, beerName, beerStyle, showInventoryOnhand, concurrency,
+                ordered);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> createBeer(BeerDto beerDto) {
+        return invalidatingAfter(delegate.createBeer(beerDto), () -> invalidate(beerDto));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> updateBeer(UUID uuid, BeerDto beerDto) {
+        return invalidatingAfter(delegate.updateBeer(uuid, beerDto), () -> {
+            invalidate(uuid);
+            invalidate(beerDto);
+        });
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> deleteBeerById(UUID id) {
+        return invalidatingAfter(delegate.deleteBeerById(id), () -> invalidate(id));
+    }
+
+    @Override
+    public Flux<BulkResult> createBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return delegate.createBeers(beers, concurrency, requestsPerSecond)
+                .doOnNext(result -> invalidate(result.getBeer()));
+    }
+
+    @Override
+    public Flux<BulkResult> updateBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return delegate.updateBeers(beers, concurrency, requestsPerSecond)
+                .doOnNext(result -> invalidate(result.getBeer()));
+    }
+
+    public CacheStats beersByIdStats() {
+        return beersById.synchronous().stats();
+    }
+
+    public CacheStats beersByUpcStats() {
+        return beersByUpc.synchronous().stats();
+    }
+
+    private static <K> Caffeine<K, CachedLookup> cacheBuilder(long maximumSize, Duration timeToLive, Duration refreshAfter,
+                                                              Duration notFoundTimeToLive, Ticker ticker) {
+        Caffeine<K, CachedLookup> builder = Caffeine.newBuilder().maximumSize(maximumSize).ticker(ticker)
+                .expireAfter(new LookupExpiry<K>(timeToLive.toNanos(), notFoundTimeToLive.toNanos())).recordStats();
+        return refreshAfter != null ? builder.refreshAfterWrite(refreshAfter) : builder;
+    }
+
+    /**
+     * Runs {@code invalidation} once {@code write} has an outcome, before that outcome reaches the subscriber.
+     */
+    private static <T> Mono<T> invalidatingAfter(Mono<T> write, Runnable invalidation) {
+        Mono<T> invalidate = Mono.fromRunnable(invalidation);
+        return write.onErrorResume(e -> invalidate.then(Mono.error(e)))
+                .flatMap(result -> invalidate.thenReturn(result))
+                .switchIfEmpty(invalidate);
+    }
+
+    /**
+     * A lookup that completes empty yields a {@code null} future value, which Caffeine does not store.
+     */
+    private static CompletableFuture<CachedLookup> load(Mono<BeerDto> lookup, Consumer<BeerDto> index) {
+        return lookup.doOnNext(index).map(CachedLookup::found)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(CachedLookup.notFound(e)))
+                .toFuture();
+    }
+
+    private void indexById(BeerDto beer) {
+        if (beer.getId() != null) {
+            beersById.synchronous().put(beer.getId(), CachedLookup.found(beer));
+        }
+    }
+
+    private void indexByUpc(BeerDto beer) {
+        if (beer.getUpc() != null) {
+            beersByUpc.synchronous().put(beer.getUpc(), CachedLookup.found(beer));
+        }
+    }
+
+    private void invalidate(BeerDto beer) {
+        if (beer.getId() != null) {
+            invalidate(beer.getId());
+        }
+        if (beer.getUpc() != null) {
+            beersByUpc.synchronous().invalidate(beer.getUpc());
+        }
+    }
+
+    private void invalidate(UUID id) {
+        CompletableFuture<CachedLookup> cached = beersById.getIfPresent(id);
+        beersById.synchronous().invalidate(id);
+        Optional<BeerDto> beer = cached != null && cached.isDone() && !cached.isCompletedExceptionally()
+                ? Optional.ofNullable(cached.join().beer) : Optional.empty();
+        beer.map(BeerDto::getUpc).ifPresent(beersByUpc.synchronous()::invalidate);
+    }
+
+    /**
+     * Outcome of a lookup: the beer, or the {@code 404} it was answered with, which is replayed as a fresh
+     * exception to every caller.
+     */
+    private static final class CachedLookup {
+
+        final BeerDto beer;
+        final WebClientResponseException notFound;
+
+        private CachedLookup(BeerDto beer, WebClientResponseException notFound) {
+            this.beer = beer;
+            this.notFound = notFound;
+        }
+
+        static CachedLookup found(BeerDto beer) {
+            return new CachedLookup(beer, null);
+        }
+
+        static CachedLookup notFound(WebClientResponseException notFound) {
+            return new CachedLookup(null, notFound);
+        }
+
+        boolean isFound() {
+            return beer != null;
+        }
+
+        Mono<BeerDto> replay() {
+            if (beer != null) {
+                return Mono.just(beer);
+            }
+            HttpHeaders headers = notFound.getHeaders();
+            MediaType contentType = headers.getContentType();
+            return Mono.error(WebClientResponseException.create(notFound.getRawStatusCode(), notFound.getStatusText(),
+                    headers, notFound.getResponseBodyAsByteArray(), contentType != null ? contentType.getCharset() : null,
+                    notFound.getRequest()));
+        }
+    }
+
+    private static final class LookupExpiry<K> implements Expiry<K, CachedLookup> {
+
+        private final long foundNanos;
+        private final long notFoundNanos;
+
+        LookupExpiry(long foundNanos, long notFoundNanos) {
+            this.foundNanos = foundNanos;
+            this.notFoundNanos = notFoundNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(K key, CachedLookup lookup, long currentTime) {
+            return lookup.isFound() ? foundNanos : notFoundNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, CachedLookup lookup, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, lookup, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, CachedLookup lookup, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
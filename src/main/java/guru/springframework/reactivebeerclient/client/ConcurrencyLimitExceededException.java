@@ -0,0 +1,11 @@
+package guru.springframework.reactivebeerclient.client;
+
+/**
+ * A call was rejected by the adaptive concurrency limit, either right away or after waiting too long for a slot.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    public ConcurrencyLimitExceededException(String message) {
+        super(message);
+    }
+}
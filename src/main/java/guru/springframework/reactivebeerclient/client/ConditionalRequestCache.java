@@ -0,0 +1,90 @@
+package guru.springframework.reactivebeerclient.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+
+import java.util.stream.Collectors;
+
+/**
+ * Remembers the validators ({@code ETag}, {@code Last-Modified}) of GET responses together with their decoded
+ * bodies, keyed by resource or page query, so that a {@code 304 Not Modified} can be answered from memory
+ * without reading or decoding a body. Entries are weighed by the beers they hold, a page counting as many as its
+ * content, and every caller gets its own copy of a cached body.
+ */
+public class ConditionalRequestCache {
+
+    private final Cache<String, Validated> entries;
+
+    public ConditionalRequestCache(long maximumWeight) {
+        this.entries = Caffeine.newBuilder().maximumWeight(maximumWeight)
+                .weigher((String key, Validated validated) -> validated.weight()).build();
+    }
+
+    private ConditionalRequestCache() {
+        this.entries = null;
+    }
+
+    public static ConditionalRequestCache disabled() {
+        return new ConditionalRequestCache();
+    }
+
+    boolean isEnabled() {
+        return entries != null;
+    }
+
+    Validated get(String key) {
+        return entries.getIfPresent(key);
+    }
+
+    void store(String key, HttpHeaders headers, Object value) {
+        String eTag = headers.getETag();
+        long lastModified = headers.getLastModified();
+        if (eTag == null && lastModified < 0) {
+            entries.invalidate(key);
+        } else {
+            entries.put(key, new Validated(eTag, lastModified, value));
+        }
+    }
+
+    @Value
+    static class Validated {
+
+        String eTag;
+        long lastModified;
+        Object value;
+
+        Object copyOfValue() {
+            if (value instanceof BeerDto) {
+                return copy((BeerDto) value);
+            }
+            if (value instanceof BeerPagedList) {
+                BeerPagedList page = (BeerPagedList) value;
+                return new BeerPagedList(page.getContent().stream().map(Validated::copy).collect(Collectors.toList()),
+                        page.getPageable(), page.getTotalElements());
+            }
+            return value;
+        }
+
+        int weight() {
+            return value instanceof BeerPagedList ? Math.max(1, ((BeerPagedList) value).getNumberOfElements()) : 1;
+        }
+
+        void applyTo(HttpHeaders headers) {
+            if (eTag != null) {
+                headers.setIfNoneMatch(eTag);
+            }
+            if (lastModified >= 0) {
+                headers.setIfModifiedSince(lastModified);
+            }
+        }
+
+        private static BeerDto copy(BeerDto beer) {
+            return new BeerDto(beer.getId(), beer.getBeerName(), beer.getBeerStyle(), beer.getUpc(), beer.getPrice(),
+                    beer.getQuantityOnHand(), beer.getCreatedDate(), beer.getLastUpdatedDate());
+        }
+    }
+}
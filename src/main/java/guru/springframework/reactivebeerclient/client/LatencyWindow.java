@@ -0,0 +1,54 @@
+package guru.springframework.reactivebeerclient.client;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ring buffer of the most recent call latencies. The requested percentile is first computed once
+ * {@code minSamples} latencies have been recorded, over those seen so far, and then every time another eighth of
+ * the window has been recorded, so reading it is a single volatile read.
+ */
+class LatencyWindow {
+
+    private final long[] samples;
+    private final double percentile;
+    private final long floorNanos;
+    private final int minSamples;
+    private final int recomputeEvery;
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * Negative until {@code minSamples} latencies have been recorded.
+     */
+    private volatile long percentileNanos;
+
+    LatencyWindow(int size, double percentile, Duration floor, int minSamples) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+        this.floorNanos = floor.toNanos();
+        this.minSamples = Math.max(0, Math.min(minSamples, size));
+        this.recomputeEvery = Math.max(1, size / 8);
+        this.percentileNanos = this.minSamples == 0 ? floorNanos : -1;
+    }
+
+    void record(long nanos) {
+        long n = count.getAndIncrement();
+        samples[(int) (n % samples.length)] = nanos;
+        long recorded = n + 1;
+        if (recorded >= minSamples && (recorded == minSamples || recorded % recomputeEvery == 0)) {
+            long[] sorted = Arrays.copyOf(samples, (int) Math.min(recorded, samples.length));
+            Arrays.sort(sorted);
+            percentileNanos = Math.max(floorNanos, sorted[(int) Math.min(sorted.length - 1, (long) (percentile * sorted.length))]);
+        }
+    }
+
+    /**
+     * The percentile, never below the floor, or empty while fewer than {@code minSamples} latencies are known.
+     */
+    Optional<Duration> percentile() {
+        long nanos = percentileNanos;
+        return nanos < 0 ? Optional.empty() : Optional.of(Duration.ofNanos(nanos));
+    }
+}
@@ -0,0 +1,106 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Bookkeeping of a catalog walk whose pages are fetched concurrently, fed one page at a time.
+ * <p>
+ * An insert while the walk runs pushes beers onto the next page, so the ids of the last {@code window} pages are
+ * kept to drop those repeats; the memory stays bounded by the window, not by the catalog. A delete pulls beers
+ * back onto the previous page instead: when a page reports a smaller catalog than the page before it, the beers
+ * that slid across that boundary sit at the end of the earlier page, and {@link #slidBack(int)} tells which pages
+ * to read again and how many beers to take from their end. A page's reported size is forgotten once both of its
+ * neighbours have arrived.
+ */
+class PageWalk {
+
+    private final int window;
+    private final Deque<Set<UUID>> recentIds = new ArrayDeque<>();
+    private final Map<Integer, Long> totals = new HashMap<>();
+    private final BitSet arrived = new BitSet();
+    private final BitSet reread = new BitSet();
+    private int totalPages;
+
+    PageWalk(int window) {
+        this.window = Math.max(window, 1);
+    }
+
+    /**
+     * Records {@code page} and returns its beers not emitted by one of the recent pages.
+     */
+    List<BeerDto> accept(BeerPagedList page) {
+        int pageNumber = page.getNumber();
+        totalPages = Math.max(totalPages, page.getTotalPages());
+        totals.put(pageNumber, page.getTotalElements());
+        arrived.set(pageNumber);
+        return unseen(page.getContent());
+    }
+
+    /**
+     * Beers from the end of a page read again because of {@link #slidBack(int)}, keeping the last {@code count}
+     * not emitted by one of the recent pages.
+     */
+    List<BeerDto> acceptTail(BeerPagedList page, long count) {
+        List<BeerDto> content = page.getContent();
+        int from = (int) Math.max(content.size() - count, 0);
+        return unseen(content.subList(from, content.size()));
+    }
+
+    /**
+     * Pages next to {@code pageNumber} that were read before a delete their successor saw, each with the number of
+     * beers that slid onto it, earlier pages first; each page is reported at most once.
+     */
+    Map<Integer, Long> slidBack(int pageNumber) {
+        Map<Integer, Long> pages = new TreeMap<>();
+        for (int earlier = pageNumber - 1; earlier <= pageNumber; earlier++) {
+            Long before = totals.get(earlier);
+            Long after = totals.get(earlier + 1);
+            if (before != null && after != null && before > after && !reread.get(earlier)) {
+                reread.set(earlier);
+                pages.put(earlier, before - after);
+            }
+        }
+        for (int settled = pageNumber - 1; settled <= pageNumber + 1; settled++) {
+            if (settled >= 0 && (settled == 0 || arrived.get(settled - 1)) && arrived.get(settled + 1)) {
+                totals.remove(settled);
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Largest page count reported so far, to find the pages added while the walk ran.
+     */
+    int getTotalPages() {
+        return totalPages;
+    }
+
+    private List<BeerDto> unseen(List<BeerDto> beers) {
+        Set<UUID> ids = new HashSet<>(beers.size() * 2);
+        List<BeerDto> unseen = new ArrayList<>(beers.size());
+        for (BeerDto beer : beers) {
+            UUID id = beer.getId();
+            if (id == null || (ids.add(id) && recentIds.stream().noneMatch(recent -> recent.contains(id)))) {
+                unseen.add(beer);
+            }
+        }
+        recentIds.addLast(ids);
+        if (recentIds.size() > window) {
+            recentIds.removeFirst();
+        }
+        return unseen;
+    }
+}
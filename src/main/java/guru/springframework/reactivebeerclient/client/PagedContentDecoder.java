@@ -0,0 +1,183 @@
+package guru.springframework.reactivebeerclient.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.PooledDataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.NOT_AVAILABLE;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+
+/**
+ * Decodes the {@code content} array of a paged response element by element. Raw buffers are fed into
+ * Jackson's non-blocking parser as they arrive, so each element is emitted as soon as its closing token
+ * has been read; the page metadata, {@code pageable} and {@code sort} subtrees are skipped token by token.
+ * Like Spring's {@code Jackson2Tokenizer}, the tokens of an element are copied into a {@link TokenBuffer} as they
+ * are parsed and the element is bound from that buffer, so every byte is parsed once. Floating point numbers are
+ * kept as {@link java.math.BigDecimal}s so that prices bind exactly. An element larger than
+ * {@code maxInMemorySize} bytes fails the decode with a {@link DataBufferLimitException}.
+ */
+class PagedContentDecoder {
+
+    /**
+     * Spring's default limit on the bytes a codec buffers.
+     */
+    static final int DEFAULT_MAX_IN_MEMORY_SIZE = 256 * 1024;
+
+    private static final String CONTENT_FIELD = "content";
+    private static final int ROOT_DEPTH = 1;
+    private static final int CONTENT_DEPTH = 2;
+    private static final int ELEMENT_DEPTH = 3;
+
+    private final ObjectMapper objectMapper;
+    private final int maxInMemorySize;
+
+    PagedContentDecoder(ObjectMapper objectMapper) {
+        this(objectMapper, DEFAULT_MAX_IN_MEMORY_SIZE);
+    }
+
+    /**
+     * @param maxInMemorySize most bytes a single element may span, or {@code -1} for no limit
+     */
+    PagedContentDecoder(ObjectMapper objectMapper, int maxInMemorySize) {
+        this.objectMapper = objectMapper;
+        this.maxInMemorySize = maxInMemorySize;
+    }
+
+    <T> Flux<T> decode(Flux<DataBuffer> body, Class<T> elementType) {
+        return Flux.defer(() -> {
+            ContentTokenizer<T> tokenizer = new ContentTokenizer<>(elementType);
+            return body.map(PagedContentDecoder::drain)
+                    .concatMapIterable(tokenizer::tokenize)
+                    .concatWith(Flux.defer(tokenizer::endOfInput))
+                    .doOnDiscard(PooledDataBuffer.class, DataBufferUtils::release)
+                    .doFinally(signal -> tokenizer.close());
+        });
+    }
+
+    /**
+     * Copies and releases a buffer before it reaches the tokenizer, so that a decoding error cannot hand a released
+     * buffer to the discard hook.
+     */
+    private static byte[] drain(DataBuffer dataBuffer) {
+        byte[] bytes = new byte[dataBuffer.readableByteCount()];
+        dataBuffer.read(bytes);
+        DataBufferUtils.release(dataBuffer);
+        return bytes;
+    }
+
+    private final class ContentTokenizer<T> {
+
+        private final Class<T> elementType;
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+
+        private int depth;
+        private boolean contentField;
+        private boolean inContent;
+        private long fed;
+        private long elementStart;
+        private TokenBuffer element;
+
+        ContentTokenizer(Class<T> elementType) {
+            this.elementType = elementType;
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to create non-blocking JSON parser", e);
+            }
+            this.feeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
+        }
+
+        List<T> tokenize(byte[] bytes) {
+            fed += bytes.length;
+            try {
+                feeder.feedInput(bytes, 0, bytes.length);
+                List<T> result = parseAvailable();
+                if (element != null) {
+                    checkLimit(fed);
+                }
+                return result;
+            } catch (IOException e) {
+                throw new DecodingException("JSON decoding error: " + e.getMessage(), e);
+            }
+        }
+
+        Flux<T> endOfInput() {
+            feeder.endOfInput();
+            try {
+                return Flux.fromIterable(parseAvailable());
+            } catch (IOException e) {
+                return Flux.error(new DecodingException("JSON decoding error: " + e.getMessage(), e));
+            }
+        }
+
+        /**
+         * Parses the tokens fed so far. An element left open at the end of the input keeps its tokens in
+         * {@link #element} until its closing token arrives.
+         */
+        private List<T> parseAvailable() throws IOException {
+            List<T> result = Collections.emptyList();
+            JsonToken token;
+            while ((token = parser.nextToken()) != NOT_AVAILABLE && token != null) {
+                if (token.isStructStart()) {
+                    depth++;
+                    if (inContent && depth == ELEMENT_DEPTH && element == null) {
+                        // the parser stands right behind the single-byte '{'
+                        elementStart = parser.getCurrentLocation().getByteOffset() - 1;
+                        element = new TokenBuffer(parser);
+                        element.forceUseOfBigDecimal(true);
+                    } else if (contentField && depth == CONTENT_DEPTH && token == START_ARRAY) {
+                        inContent = true;
+                    }
+                } else if (token.isStructEnd()) {
+                    depth--;
+                } else if (token == FIELD_NAME && depth == ROOT_DEPTH) {
+                    contentField = CONTENT_FIELD.equals(parser.getCurrentName());
+                }
+
+                if (element != null) {
+                    element.copyCurrentEvent(parser);
+                    if (depth < ELEMENT_DEPTH) {
+                        checkLimit(parser.getCurrentLocation().getByteOffset());
+                        if (result.isEmpty()) {
+                            result = new ArrayList<>();
+                        }
+                        result.add(objectMapper.readValue(element.asParser(objectMapper), elementType));
+                        element = null;
+                    }
+                } else if (inContent && depth < CONTENT_DEPTH) {
+                    inContent = false;
+                }
+            }
+            return result;
+        }
+
+        private void checkLimit(long elementEnd) {
+            if (maxInMemorySize >= 0 && elementEnd - elementStart > maxInMemorySize) {
+                throw new DataBufferLimitException("Exceeded limit on max bytes per JSON object: " + maxInMemorySize);
+            }
+        }
+
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+}
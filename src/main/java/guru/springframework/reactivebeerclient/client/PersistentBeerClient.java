@@ -0,0 +1,161 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import guru.springframework.reactivebeerclient.model.BulkResult;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import guru.springframework.reactivebeerclient.store.BeerStore;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static guru.springframework.reactivebeerclient.client.BeerClientImpl.lookupAll;
+
+/**
+ * Read-through {@link BeerStore} in front of another {@link BeerClient}, so lookups survive restarts. Stored beers
+ * younger than {@code maxAge} are served from disk; other lookups go to the delegate and their result is written
+ * back. Updates and deletes made through this client remove the affected beers before their result is emitted,
+ * so a lookup that follows a write never sees the old beer. Every store access runs on the bounded elastic
+ * scheduler, since it reads or writes a file and decodes JSON.
+ */
+@Slf4j
+public class PersistentBeerClient implements BeerClient {
+
+    private final BeerClient delegate;
+    private final BeerStore store;
+    private final Duration maxAge;
+
+    public PersistentBeerClient(BeerClient delegate, BeerStore store, Duration maxAge) {
+        this.delegate = delegate;
+        this.store = store;
+        this.maxAge = maxAge;
+    }
+
+    @Override
+    public Mono<BeerDto> getBeerById(UUID id) {
+        return readThrough(() -> store.get(id), () -> delegate.getBeerById(id));
+    }
+
+    @Override
+    public Mono<BeerDto> getBeerByUPC(String upc) {
+        return readThrough(() -> store.getByUpc(upc), () -> delegate.getBeerByUPC(upc));
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByIds(Publisher<UUID> ids, int concurrency, boolean ordered) {
+        return lookupAll(ids, this::getBeerById, concurrency, ordered);
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByUPCs(Publisher<String> upcs, int concurrency, boolean ordered) {
+        return lookupAll(upcs, this::getBeerByUPC, concurrency, ordered);
+    }
+
+    @Override
+    public Mono<BeerPagedList> listBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                         Boolean showInventoryOnhand) {
+        return delegate.listBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<BeerDto> listBeersStreaming(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                            Boolean showInventoryOnhand) {
+        return delegate.listBeersStreaming(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<CompactBeerDto> listCompactBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                                 Boolean showInventoryOnhand) {
+        return delegate.listCompactBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeers(Integer pageSize, String beerName, String beerStyle,
+                                        Boolean showInventoryOnhand, int prefetch) {
+        return delegate.streamAllBeers(pageSize, beerName, beerStyle, showInventoryOnhand, prefetch);
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeersInParallel(Integer pageSize, String beerName, String beerStyle,
+                                                  Boolean showInventoryOnhand, int concurrency, boolean ordered) {
+        return delegate.streamAllBeersInParallel(pageSize, beerName, beerStyle, showInventoryOnhand, concurrency,
+                ordered);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> createBeer(BeerDto beerDto) {
+        return delegate.createBeer(beerDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> updateBeer(UUID uuid, BeerDto beerDto) {
+        return evictingAfter(delegate.updateBeer(uuid, beerDto), uuid);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> deleteBeerById(UUID id) {
+        return evictingAfter(delegate.deleteBeerById(id), id);
+    }
+
+    @Override
+    public Flux<BulkResult> createBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return delegate.createBeers(beers, concurrency, requestsPerSecond);
+    }
+
+    @Override
+    public Flux<BulkResult> updateBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return delegate.updateBeers(beers, concurrency, requestsPerSecond).concatMap(result ->
+                result.getBeer().getId() == null ? Mono.just(result) : evict(result.getBeer().getId()).thenReturn(result));
+    }
+
+    private Mono<BeerDto> readThrough(Supplier<Optional<BeerStore.Stored>> stored, Supplier<Mono<BeerDto>> remote) {
+        return Mono.fromCallable(() -> {
+                    Instant oldest = Instant.now().minus(maxAge);
+                    return stored.get().filter(found -> found.getWrittenAt().isAfter(oldest)).map(BeerStore.Stored::getBeer);
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    log.warn("Unable to read from the store, asking the delegate", e);
+                    return Mono.just(Optional.empty());
+                })
+                .flatMap(found -> found.map(Mono::just).orElseGet(() -> remote.get().flatMap(this::write)));
+    }
+
+    /**
+     * Removes {@code id} from the store once {@code write} has terminated, before passing its signal on.
+     */
+    private <T> Mono<T> evictingAfter(Mono<T> write, UUID id) {
+        return write.onErrorResume(e -> evict(id).then(Mono.error(e)))
+                .flatMap(result -> evict(id).thenReturn(result))
+                .switchIfEmpty(evict(id).then(Mono.empty()));
+    }
+
+    private Mono<Void> evict(UUID id) {
+        return Mono.fromRunnable(() -> store.delete(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    log.warn("Unable to remove beer {} from the store", id, e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<BeerDto> write(BeerDto beer) {
+        return Mono.fromRunnable(() -> store.put(beer))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    log.warn("Unable to store beer {}", beer.getId(), e);
+                    return Mono.empty();
+                })
+                .thenReturn(beer);
+    }
+}
@@ -0,0 +1,202 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.config.WebClientConfigProperties;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import guru.springframework.reactivebeerclient.model.BulkResult;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.reactivestreams.Publisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static guru.springframework.reactivebeerclient.client.BeerClientImpl.lookupAll;
+
+/**
+ * Guards the idempotent lookups of another {@link BeerClient}: {@code getBeerById}, {@code getBeerByUPC} and
+ * {@code listBeers}. Each attempt is hedged with a second one once it has been outstanding for longer than a
+ * percentile of recent latencies, and the first of the two to succeed wins. Every attempt passes through a circuit
+ * breaker that fails calls fast while the upstream keeps failing; transient failures (5xx and connection errors)
+ * are retried around it with jittered exponential backoff, so each retry is recorded by the breaker and an open
+ * circuit ends the retries. Concurrent lookups of the same id or UPC share one guarded call.
+ * Writes and streaming reads are passed through untouched, as replaying them is not safe.
+ */
+public class ResilientBeerClient implements BeerClient {
+
+    private final BeerClient delegate;
+    private final WebClientConfigProperties.Resilience settings;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyWindow latencyWindow;
+    private final Retry retry;
+
+    private final SingleFlight<UUID, BeerDto> beerByIdFlights = new SingleFlight<>();
+    private final SingleFlight<String, BeerDto> beerByUpcFlights = new SingleFlight<>();
+
+    public ResilientBeerClient(BeerClient delegate, WebClientConfigProperties.Resilience settings) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.circuitBreaker = CircuitBreaker.of("beer-api", CircuitBreakerConfig.custom()
+                .failureRateThreshold(settings.getCircuitBreakerFailureRateThreshold())
+                .slidingWindowSize(settings.getCircuitBreakerSlidingWindowSize())
+                .minimumNumberOfCalls(settings.getCircuitBreakerMinimumNumberOfCalls())
+                .waitDurationInOpenState(settings.getCircuitBreakerWaitDurationInOpenState())
+                .recordException(ResilientBeerClient::isTransient)
+                .build());
+        this.latencyWindow = new LatencyWindow(settings.getLatencyWindowSize(), settings.getHedgePercentile(),
+                settings.getMinHedgeDelay(), settings.getMinHedgeSamples());
+        this.retry = Retry.backoff(settings.getMaxRetries(), settings.getRetryMinBackoff())
+                .maxBackoff(settings.getRetryMaxBackoff())
+                .jitter(settings.getRetryJitter())
+                .filter(ResilientBeerClient::isTransient)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    @Override
+    public Mono<BeerDto> getBeerById(UUID id) {
+        return beerByIdFlights.execute(id, key -> guarded(() -> delegate.getBeerById(key)));
+    }
+
+    @Override
+    public Mono<BeerDto> getBeerByUPC(String upc) {
+        return beerByUpcFlights.execute(upc, key -> guarded(() -> delegate.getBeerByUPC(key)));
+    }
+
+    @Override
+    public Mono<BeerPagedList> listBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                         Boolean showInventoryOnhand) {
+        return guarded(() -> delegate.listBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand));
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByIds(Publisher<UUID> ids, int concurrency, boolean ordered) {
+        return lookupAll(ids, this::getBeerById, concurrency, ordered);
+    }
+
+    @Override
+    public Flux<BeerDto> getBeersByUPCs(Publisher<String> upcs, int concurrency, boolean ordered) {
+        return lookupAll(upcs, this::getBeerByUPC, concurrency, ordered);
+    }
+
+    @Override
+    public Flux<BeerDto> listBeersStreaming(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                            Boolean showInventoryOnhand) {
+        return delegate.listBeersStreaming(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<CompactBeerDto> listCompactBeers(Integer pageNumber, Integer pageSize, String beerName, String beerStyle,
+                                                 Boolean showInventoryOnhand) {
+        return delegate.listCompactBeers(pageNumber, pageSize, beerName, beerStyle, showInventoryOnhand);
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeers(Integer pageSize, String beerName, String beerStyle,
+                                        Boolean showInventoryOnhand, int prefetch) {
+        return delegate.streamAllBeers(pageSize, beerName, beerStyle, showInventoryOnhand, prefetch);
+    }
+
+    @Override
+    public Flux<BeerDto> streamAllBeersInParallel(Integer pageSize, String beerName, String beerStyle,
+                                                  Boolean showInventoryOnhand, int concurrency, boolean ordered) {
+        return delegate.streamAllBeersInParallel(pageSize, beerName, beerStyle, showInventoryOnhand, concurrency,
+                ordered);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> createBeer(BeerDto beerDto) {
+        return delegate.createBeer(beerDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> updateBeer(UUID uuid, BeerDto beerDto) {
+        return delegate.updateBeer(uuid, beerDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> deleteBeerById(UUID id) {
+        return delegate.deleteBeerById(id);
+    }
+
+    @Override
+    public Flux<BulkResult> createBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return delegate.createBeers(beers, concurrency, requestsPerSecond);
+    }
+
+    @Override
+    public Flux<BulkResult> updateBeers(Publisher<BeerDto> beers, int concurrency, int requestsPerSecond) {
+        return delegate.updateBeers(beers, concurrency, requestsPerSecond);
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private <T> Mono<T> guarded(Supplier<Mono<T>> call) {
+        return hedged(call).transformDeferred(CircuitBreakerOperator.of(circuitBreaker)).retryWhen(retry);
+    }
+
+    /**
+     * The hedge is only fired while the first attempt is still outstanding, and not before the latency window has
+     * seen enough calls to pick a delay. A failed attempt does not end the race as long as the other one can still
+     * succeed; if both fail, the first attempt's error is propagated.
+     */
+    private <T> Mono<T> hedged(Supplier<Mono<T>> call) {
+        if (!settings.isHedgingEnabled()) {
+            return timed(call);
+        }
+        return Mono.defer(() -> {
+            Optional<Duration> hedgeDelay = latencyWindow.percentile();
+            if (hedgeDelay.isEmpty()) {
+                return timed(call);
+            }
+            Sinks.Empty<Void> firstDone = Sinks.empty();
+            Mono<T> first = timed(call).doOnTerminate(() -> firstDone.tryEmitEmpty());
+            Mono<T> hedge = Mono.delay(hedgeDelay.get())
+                    .takeUntilOther(firstDone.asMono().then(Mono.just(0L)))
+                    .flatMap(tick -> timed(call));
+            return Mono.firstWithValue(first, hedge).onErrorResume(NoSuchElementException.class,
+                    allFailed -> firstFailure(allFailed).<Mono<T>>map(Mono::error).orElseGet(Mono::empty));
+        });
+    }
+
+    /**
+     * Attempts that completed empty show up as {@link NoSuchElementException}s; when only those are left the
+     * lookup itself was empty.
+     */
+    private static Optional<Throwable> firstFailure(NoSuchElementException allFailed) {
+        List<Throwable> failures = new ArrayList<>(Exceptions.unwrapMultiple(allFailed.getCause()));
+        failures.addAll(Arrays.asList(allFailed.getSuppressed()));
+        return failures.stream().filter(failure -> !(failure instanceof NoSuchElementException)).findFirst();
+    }
+
+    private <T> Mono<T> timed(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.get().doOnSuccess(value -> latencyWindow.record(System.nanoTime() - start));
+        });
+    }
+
+    static boolean isTransient(Throwable e) {
+        if (e instanceof WebClientResponseException) {
+            return ((WebClientResponseException) e).getRawStatusCode() >= 500;
+        }
+        return e instanceof WebClientRequestException;
+    }
+}
@@ -0,0 +1,23 @@
+package guru.springframework.reactivebeerclient.client;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent calls for the same key into a single upstream call. Every subscriber that
+ * arrives while a call for its key is in flight shares that call's outcome; once it terminates the
+ * key is released and the next subscriber triggers a fresh call.
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+    Mono<V> execute(K key, Function<? super K, Mono<V>> call) {
+        return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> call.apply(k)
+                .doFinally(signal -> inFlight.remove(k))
+                .cache()));
+    }
+}
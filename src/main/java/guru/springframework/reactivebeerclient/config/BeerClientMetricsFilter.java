@@ -0,0 +1,127 @@
+package guru.springframework.reactivebeerclient.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Times every exchange from the moment it is sent until its response body has been fully received, and
+ * records request and response body sizes. Meters are tagged with the {@link #OPERATION_ATTRIBUTE} set
+ * by the BeerClient method that issued the request, the HTTP method, the status, the exception, if any, and the
+ * outcome: the status series, {@code UNKNOWN} for I/O errors, or {@code CANCELLED} when the caller gave up on the
+ * exchange before its response body had been received, so that timeouts and hedging show up as well.
+ * Body decoding happens after the body completes and is timed separately by {@link DecodeOffloading}.
+ */
+public class BeerClientMetricsFilter implements ExchangeFilterFunction {
+
+    public static final String OPERATION_ATTRIBUTE = BeerClientMetricsFilter.class.getName() + ".operation";
+
+    private static final String UNKNOWN = "unknown";
+    private static final String NONE = "none";
+    private static final String CANCELLED = "CANCELLED";
+
+    private final MeterRegistry meterRegistry;
+    private final double[] percentiles;
+
+    public BeerClientMetricsFilter(MeterRegistry meterRegistry, double... percentiles) {
+        this.meterRegistry = meterRegistry;
+        this.percentiles = percentiles;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String operation = request.attribute(OPERATION_ATTRIBUTE).map(Object::toString).orElse(UNKNOWN);
+        Tags tags = Tags.of("operation", operation, "method", request.method().name());
+        AtomicLong bytesOut = new AtomicLong();
+        AtomicBoolean responded = new AtomicBoolean();
+        long start = System.nanoTime();
+        return next.exchange(countRequestBytes(request, bytesOut))
+                .doOnError(e -> {
+                    responded.set(true);
+                    recordBytes("beer.client.request.size", tags, bytesOut.get());
+                    recordTime(tags.and("status", "IO_ERROR", "exception", e.getClass().getSimpleName(),
+                            "outcome", "UNKNOWN"), start);
+                })
+                .doOnCancel(() -> {
+                    if (responded.compareAndSet(false, true)) {
+                        recordBytes("beer.client.request.size", tags, bytesOut.get());
+                        recordTime(tags.and("status", CANCELLED, "exception", NONE, "outcome", CANCELLED), start);
+                    }
+                })
+                .map(response -> {
+                    responded.set(true);
+                    recordBytes("beer.client.request.size", tags, bytesOut.get());
+                    Tags responseTags = tags.and("status", String.valueOf(response.rawStatusCode()));
+                    String outcome = outcome(response.rawStatusCode());
+                    AtomicLong bytesIn = new AtomicLong();
+                    AtomicBoolean recorded = new AtomicBoolean();
+                    return response.mutate().body(body -> body
+                            .doOnNext(buffer -> bytesIn.addAndGet(buffer.readableByteCount()))
+                            .doOnComplete(() -> recordResponse(recorded, responseTags, NONE, outcome, bytesIn, start))
+                            .doOnError(e -> recordResponse(recorded, responseTags, e.getClass().getSimpleName(),
+                                    outcome, bytesIn, start))
+                            .doOnCancel(() -> recordResponse(recorded, responseTags, NONE, CANCELLED, bytesIn, start)))
+                            .build();
+                });
+    }
+
+    private static String outcome(int rawStatusCode) {
+        HttpStatus.Series series = HttpStatus.Series.resolve(rawStatusCode);
+        if (series == null) {
+            return "UNKNOWN";
+        }
+        return series == HttpStatus.Series.SUCCESSFUL ? "SUCCESS" : series.name();
+    }
+
+    private ClientRequest countRequestBytes(ClientRequest request, AtomicLong bytesOut) {
+        return ClientRequest.from(request)
+                .body((outputMessage, context) -> request.body().insert(new ClientHttpRequestDecorator(outputMessage) {
+                    @Override
+                    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                        return super.writeWith(Flux.from(body)
+                                .doOnNext(buffer -> bytesOut.addAndGet(buffer.readableByteCount())));
+                    }
+                }, context))
+                .build();
+    }
+
+    private void recordResponse(AtomicBoolean recorded, Tags responseTags, String exception, String outcome,
+                                AtomicLong bytesIn, long start) {
+        if (recorded.compareAndSet(false, true)) {
+            recordTime(responseTags.and("exception", exception, "outcome", outcome), start);
+            recordBytes("beer.client.response.size", responseTags, bytesIn.get());
+        }
+    }
+
+    private void recordTime(Tags tags, long start) {
+        Timer.builder("beer.client.requests")
+                .description("Time from sending a request until its response body has been received")
+                .tags(tags)
+                .publishPercentiles(percentiles)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordBytes(String name, Tags tags, long bytes) {
+        DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+}
@@ -0,0 +1,141 @@
+package guru.springframework.reactivebeerclient.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.codec.HttpMessageDecoder;
+import org.springframework.http.codec.json.AbstractJackson2Decoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * What the beer WebClient adds to Jackson's decoders, whatever the wire format: aggregated bodies (every
+ * {@code bodyToMono}) are timed as {@code beer.client.decode} per target type, so that decode cost can be told
+ * apart from network time, and with a decode scheduler bodies of at least {@code offloadThreshold} bytes are decoded
+ * there instead of on the event loop that received them. {@link #decorate} applies this to the JSON, Smile or CBOR
+ * decoder; streamed bodies are left to the decorated decoder.
+ */
+class DecodeOffloading {
+
+    private final MeterRegistry meterRegistry;
+    private final double[] percentiles;
+    private final Scheduler decodeScheduler;
+    private final int offloadThreshold;
+
+    /**
+     * @param meterRegistry   {@code null} to leave decoding untimed
+     * @param decodeScheduler {@code null} to decode every body where it was received
+     */
+    DecodeOffloading(@Nullable MeterRegistry meterRegistry, double[] percentiles, @Nullable Scheduler decodeScheduler,
+                     int offloadThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.percentiles = percentiles;
+        this.decodeScheduler = decodeScheduler;
+        this.offloadThreshold = offloadThreshold;
+    }
+
+    HttpMessageDecoder<Object> decorate(AbstractJackson2Decoder decoder) {
+        return new OffloadingDecoder(decoder);
+    }
+
+    /**
+     * Joins {@code input} and decodes it with {@code decode}, which releases the buffer it is given. A body that
+     * never reaches {@code decode}, because the exchange was cancelled or the scheduler refused the task, is
+     * released here.
+     */
+    private Mono<Object> decodeToMono(Publisher<DataBuffer> input, int maxInMemorySize, Function<DataBuffer, Object> decode) {
+        return DataBufferUtils.join(input, maxInMemorySize).flatMap(dataBuffer -> {
+            if (decodeScheduler == null || dataBuffer.readableByteCount() < offloadThreshold) {
+                return Mono.justOrEmpty(decode.apply(dataBuffer));
+            }
+            AtomicBoolean claimed = new AtomicBoolean();
+            return Mono.fromCallable(() -> claimed.compareAndSet(false, true) ? decode.apply(dataBuffer) : null)
+                    .subscribeOn(decodeScheduler)
+                    .doFinally(signal -> {
+                        if (claimed.compareAndSet(false, true)) {
+                            DataBufferUtils.release(dataBuffer);
+                        }
+                    });
+        });
+    }
+
+    private Object timed(ResolvableType targetType, Supplier<Object> decode) {
+        if (meterRegistry == null) {
+            return decode.get();
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return decode.get();
+        } finally {
+            sample.stop(Timer.builder("beer.client.decode")
+                    .description("Time spent decoding aggregated response bodies")
+                    .tag("type", targetType.toClass().getSimpleName())
+                    .publishPercentiles(percentiles)
+                    .register(meterRegistry));
+        }
+    }
+
+    private final class OffloadingDecoder implements HttpMessageDecoder<Object> {
+
+        private final AbstractJackson2Decoder delegate;
+
+        OffloadingDecoder(AbstractJackson2Decoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean canDecode(ResolvableType elementType, @Nullable MimeType mimeType) {
+            return delegate.canDecode(elementType, mimeType);
+        }
+
+        @Override
+        public Flux<Object> decode(Publisher<DataBuffer> input, ResolvableType elementType,
+                                   @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+            return delegate.decode(input, elementType, mimeType, hints);
+        }
+
+        @Override
+        public Mono<Object> decodeToMono(Publisher<DataBuffer> input, ResolvableType elementType,
+                                         @Nullable MimeType mimeType, @Nullable Map<String, Object> hints) {
+            return DecodeOffloading.this.decodeToMono(input, delegate.getMaxInMemorySize(),
+                    dataBuffer -> decode(dataBuffer, elementType, mimeType, hints));
+        }
+
+        @Override
+        public Object decode(DataBuffer dataBuffer, ResolvableType targetType, @Nullable MimeType mimeType,
+                             @Nullable Map<String, Object> hints) throws DecodingException {
+            return timed(targetType, () -> delegate.decode(dataBuffer, targetType, mimeType, hints));
+        }
+
+        @Override
+        public List<MimeType> getDecodableMimeTypes() {
+            return delegate.getDecodableMimeTypes();
+        }
+
+        @Override
+        public List<MimeType> getDecodableMimeTypes(ResolvableType targetType) {
+            return delegate.getDecodableMimeTypes(targetType);
+        }
+
+        @Override
+        public Map<String, Object> getDecodeHints(ResolvableType actualType, ResolvableType elementType,
+                                                  ServerHttpRequest request, ServerHttpResponse response) {
+            return delegate.getDecodeHints(actualType, elementType, request, response);
+        }
+    }
+}
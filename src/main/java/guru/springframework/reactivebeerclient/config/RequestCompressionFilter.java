@@ -0,0 +1,76 @@
+package guru.springframework.reactivebeerclient.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips request bodies of at least {@code threshold} bytes and marks them with {@code Content-Encoding: gzip}.
+ * Empty bodies, including a body publisher that completes without data, are written through untouched.
+ * The achieved ratio (original size over compressed size) is recorded as {@code beer.client.request.compression.ratio}.
+ */
+public class RequestCompressionFilter implements ExchangeFilterFunction {
+
+    private static final String GZIP = "gzip";
+
+    private final int threshold;
+    private final DistributionSummary compressionRatio;
+
+    public RequestCompressionFilter(int threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.compressionRatio = DistributionSummary.builder("beer.client.request.compression.ratio")
+                .description("Uncompressed over compressed size of gzipped request bodies")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (request.headers().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return next.exchange(request);
+        }
+        return next.exchange(ClientRequest.from(request)
+                .body((outputMessage, context) -> request.body().insert(new ClientHttpRequestDecorator(outputMessage) {
+                    @Override
+                    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                        return DataBufferUtils.join(body).flatMap(buffer -> {
+                            if (buffer.readableByteCount() == 0 || buffer.readableByteCount() < threshold) {
+                                return super.writeWith(Mono.just(buffer));
+                            }
+                            byte[] compressed = gzip(buffer);
+                            getHeaders().set(HttpHeaders.CONTENT_ENCODING, GZIP);
+                            getHeaders().setContentLength(compressed.length);
+                            return super.writeWith(Mono.just(bufferFactory().wrap(compressed)));
+                        }).switchIfEmpty(Mono.defer(() -> super.writeWith(Mono.empty())));
+                    }
+                }, context))
+                .build());
+    }
+
+    private byte[] gzip(DataBuffer buffer) {
+        int uncompressedSize = buffer.readableByteCount();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(uncompressedSize / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            buffer.asInputStream().transferTo(gzip);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        compressionRatio.record((double) uncompressedSize / compressed.size());
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,76 @@
+package guru.springframework.reactivebeerclient.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.LastHttpContent;
+import reactor.netty.Connection;
+import reactor.netty.NettyPipeline;
+
+/**
+ * Records {@code beer.client.response.compression.ratio}, the decompressed over the received size of every
+ * compressed response body. Two handlers around Reactor Netty's decompressor count the body bytes on either side
+ * of it; connections without a decompressor in their pipeline (HTTP/2 streams, compression off) are left alone.
+ */
+class ResponseCompressionMetrics {
+
+    private static final String RECEIVED = "beer.client.compressedBytes";
+    private static final String DECODED = "beer.client.decompressedBytes";
+
+    private final DistributionSummary compressionRatio;
+
+    ResponseCompressionMetrics(MeterRegistry meterRegistry) {
+        this.compressionRatio = DistributionSummary.builder("beer.client.response.compression.ratio")
+                .description("Decompressed over received size of compressed response bodies")
+                .register(meterRegistry);
+    }
+
+    void install(Connection connection) {
+        ChannelPipeline pipeline = connection.channel().pipeline();
+        if (pipeline.get(NettyPipeline.HttpDecompressor) == null || pipeline.get(RECEIVED) != null) {
+            return;
+        }
+        Counts counts = new Counts();
+        pipeline.addBefore(NettyPipeline.HttpDecompressor, RECEIVED, new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                if (msg instanceof HttpResponse) {
+                    counts.compressed = ((HttpResponse) msg).headers().contains(HttpHeaderNames.CONTENT_ENCODING);
+                    counts.received = 0;
+                    counts.decoded = 0;
+                }
+                if (msg instanceof HttpContent) {
+                    counts.received += ((HttpContent) msg).content().readableBytes();
+                }
+                ctx.fireChannelRead(msg);
+            }
+        });
+        pipeline.addAfter(NettyPipeline.HttpDecompressor, DECODED, new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                if (msg instanceof HttpContent) {
+                    counts.decoded += ((HttpContent) msg).content().readableBytes();
+                }
+                if (msg instanceof LastHttpContent && counts.compressed && counts.received > 0) {
+                    compressionRatio.record((double) counts.decoded / counts.received);
+                }
+                ctx.fireChannelRead(msg);
+            }
+        });
+    }
+
+    /**
+     * Only touched from the connection's event loop, one response at a time.
+     */
+    private static final class Counts {
+
+        boolean compressed;
+        long received;
+        long decoded;
+    }
+}
@@ -0,0 +1,117 @@
+package guru.springframework.reactivebeerclient.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs request and response headers of a sample of exchanges, plus every exchange slower than the
+ * configured threshold. Bodies are never logged, and the values of the masked headers (credentials and cookies
+ * by default) are replaced with {@value #MASK}. While disabled the filter only reads one volatile flag, and it can
+ * be switched on and tuned at runtime over JMX when {@code spring.jmx.enabled} is set.
+ */
+@Slf4j
+@ManagedResource(objectName = "guru.springframework.reactivebeerclient:name=sampledExchangeLogging")
+public class SampledExchangeLoggingFilter implements ExchangeFilterFunction {
+
+    public static final List<String> DEFAULT_MASKED_HEADERS = List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.COOKIE,
+            HttpHeaders.SET_COOKIE, HttpHeaders.PROXY_AUTHORIZATION);
+
+    static final String MASK = "******";
+
+    private final AtomicLong exchanges = new AtomicLong();
+    private final Set<String> maskedHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    private volatile boolean enabled;
+    private volatile int sampleRate;
+    private volatile long slowThresholdNanos;
+
+    public SampledExchangeLoggingFilter(boolean enabled, int sampleRate, Duration slowThreshold) {
+        this(enabled, sampleRate, slowThreshold, DEFAULT_MASKED_HEADERS);
+    }
+
+    public SampledExchangeLoggingFilter(boolean enabled, int sampleRate, Duration slowThreshold,
+                                        Collection<String> maskedHeaders) {
+        this.maskedHeaders.addAll(maskedHeaders);
+        this.enabled = enabled;
+        setSampleRate(sampleRate);
+        setSlowThresholdMillis(slowThreshold.toMillis());
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled || !log.isInfoEnabled()) {
+            return next.exchange(request);
+        }
+        boolean sampled = exchanges.incrementAndGet() % sampleRate == 0;
+        long start = System.nanoTime();
+        return next.exchange(request)
+                .doOnNext(response -> {
+                    long elapsed = System.nanoTime() - start;
+                    if (sampled || elapsed >= slowThresholdNanos) {
+                        log.info("{} {} -> {} in {} ms, request headers {}, response headers {}", request.method(),
+                                request.url(), response.rawStatusCode(), Duration.ofNanos(elapsed).toMillis(),
+                                masked(request.headers()), masked(response.headers().asHttpHeaders()));
+                    }
+                })
+                .doOnError(e -> {
+                    long elapsed = System.nanoTime() - start;
+                    if (sampled || elapsed >= slowThresholdNanos) {
+                        log.info("{} {} failed after {} ms, request headers {}: {}", request.method(), request.url(),
+                                Duration.ofNanos(elapsed).toMillis(), masked(request.headers()), e.toString());
+                    }
+                });
+    }
+
+    private HttpHeaders masked(HttpHeaders headers) {
+        HttpHeaders masked = new HttpHeaders();
+        headers.forEach((name, values) -> masked.put(name, maskedHeaders.contains(name) ? List.of(MASK) : values));
+        return masked;
+    }
+
+    @ManagedAttribute
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @ManagedAttribute
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @ManagedAttribute
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @ManagedAttribute
+    public void setSampleRate(int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate must be at least 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    @ManagedAttribute
+    public long getSlowThresholdMillis() {
+        return Duration.ofNanos(slowThresholdNanos).toMillis();
+    }
+
+    @ManagedAttribute
+    public void setSlowThresholdMillis(long slowThresholdMillis) {
+        this.slowThresholdNanos = Duration.ofMillis(slowThresholdMillis).toNanos();
+    }
+}
@@ -1,25 +1,264 @@
 package guru.springframework.reactivebeerclient.config;
 
-import io.netty.handler.logging.LogLevel;
+import guru.springframework.reactivebeerclient.client.BeerUriTemplates;
+import guru.springframework.reactivebeerclient.client.ConditionalRequestCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.HttpProtocol;
 import reactor.netty.http.client.HttpClient;
-import reactor.netty.transport.logging.AdvancedByteBufFormat;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
 
-import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.BASE_URL;
+import java.net.URI;
+
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.BEER_V2_URL_BY_BEERID;
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.BEER_V2_URL_BY_UPC;
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.WireFormat.CBOR;
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.WireFormat.SMILE;
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.WiretapMode.FULL;
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.WiretapMode.SAMPLED;
 import static io.netty.handler.logging.LogLevel.DEBUG;
+import static org.springframework.http.MediaType.APPLICATION_CBOR_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.web.reactive.function.client.WebClient.builder;
 import static reactor.netty.transport.logging.AdvancedByteBufFormat.TEXTUAL;
 
+/**
+ * Inside Spring the connection pool, event loops and decode scheduler are singleton beans disposed with the context.
+ * Built by hand, the configuration creates each of them once and releases them on {@link #dispose()}.
+ */
 @Configuration
-public class WebClientConfig {
+@EnableConfigurationProperties(WebClientConfigProperties.class)
+public class WebClientConfig implements Disposable {
+
+    static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    private final WebClientConfigProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    private ConnectionProvider connectionProvider;
+    private LoopResources loopResources;
+    private Scheduler decodeScheduler;
+
+    public WebClientConfig(WebClientConfigProperties properties) {
+        this(properties, Metrics.globalRegistry);
+    }
+
+    public WebClientConfig(WebClientConfigProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Jackson2ObjectMapperBuilder.json().build());
+    }
+
+    public WebClientConfig(WebClientConfigProperties properties, MeterRegistry meterRegistry, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * JSON bodies are read and written with the application's {@link ObjectMapper} when there is one.
+     */
+    @Autowired
+    public WebClientConfig(WebClientConfigProperties properties, ObjectProvider<MeterRegistry> meterRegistry,
+                           ObjectProvider<ObjectMapper> objectMapper) {
+        this(properties, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+                objectMapper.getIfAvailable(() -> Jackson2ObjectMapperBuilder.json().build()));
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public synchronized ConnectionProvider beerConnectionProvider() {
+        if (connectionProvider != null) {
+            return connectionProvider;
+        }
+        WebClientConfigProperties.Pool pool = properties.getPool();
+        connectionProvider = ConnectionProvider.builder(pool.getName())
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(properties.getMetrics().isEnabled())
+                .build();
+        return connectionProvider;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public synchronized LoopResources beerLoopResources() {
+        if (loopResources == null) {
+            WebClientConfigProperties.EventLoop eventLoop = properties.getEventLoop();
+            loopResources = LoopResources.create(eventLoop.getThreadPrefix(),
+                    eventLoop.getThreads() > 0 ? eventLoop.getThreads() : LoopResources.DEFAULT_IO_WORKER_COUNT, true);
+        }
+        return loopResources;
+    }
+
+    /**
+     * Only created when decode offloading is enabled.
+     */
+    @Bean(destroyMethod = "dispose")
+    @ConditionalOnProperty(prefix = "beer.client.decoding", name = "offload-enabled", havingValue = "true")
+    public synchronized Scheduler beerDecodeScheduler() {
+        if (decodeScheduler == null) {
+            WebClientConfigProperties.Decoding decoding = properties.getDecoding();
+            decodeScheduler = Schedulers.newParallel("beer-client-decode",
+                    decoding.getOffloadThreads() > 0 ? decoding.getOffloadThreads() : Schedulers.DEFAULT_POOL_SIZE, true);
+        }
+        return decodeScheduler;
+    }
 
+    @Bean
+    public ConditionalRequestCache conditionalRequestCache() {
+        WebClientConfigProperties.ConditionalRequests conditionalRequests = properties.getConditionalRequests();
+        return conditionalRequests.isEnabled() ? new ConditionalRequestCache(conditionalRequests.getMaximumWeight())
+                : ConditionalRequestCache.disabled();
+    }
+
+    @Bean
+    public BeerUriTemplates beerUriTemplates() {
+        return new BeerUriTemplates(properties.getBaseUrl());
+    }
+
+    @Bean
+    public SampledExchangeLoggingFilter sampledExchangeLoggingFilter() {
+        WebClientConfigProperties.Wiretap wiretap = properties.getWiretap();
+        return new SampledExchangeLoggingFilter(wiretap.getMode() == SAMPLED, wiretap.getSampleRate(),
+                wiretap.getSlowThreshold(), wiretap.getMaskedHeaders());
+    }
+
+    /**
+     * Connection pool gauges (active, idle, pending acquire) and bytes sent and received are published by
+     * Reactor Netty to Micrometer's global registry; per-operation timers and decode times go to
+     * the application's registry.
+     */
     @Bean
     public WebClient getWebClient() {
-        return builder().baseUrl(BASE_URL)
-                .clientConnector(new ReactorClientHttpConnector(HttpClient.create().wiretap("reactor.netty.client.HttpClient", DEBUG, TEXTUAL)))
-                .build();
+        HttpClient httpClient = HttpClient.create(beerConnectionProvider())
+                .runOn(beerLoopResources(), properties.getEventLoop().isPreferNative())
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getResponseTimeout());
+        WebClientConfigProperties.Http2 http2 = properties.getHttp2();
+        if (http2.isEnabled()) {
+            httpClient = httpClient.protocol(protocols(http2));
+            if (http2.isTls()) {
+                httpClient = httpClient.secure();
+            }
+        }
+        WebClient.Builder webClientBuilder = builder().baseUrl(properties.getBaseUrl());
+        if (properties.getWireFormat() == SMILE) {
+            webClientBuilder.defaultHeader(HttpHeaders.ACCEPT, SMILE_VALUE + ", " + APPLICATION_JSON_VALUE + ";q=0.9");
+        } else if (properties.getWireFormat() == CBOR) {
+            webClientBuilder.defaultHeader(HttpHeaders.ACCEPT, APPLICATION_CBOR_VALUE + ", " + APPLICATION_JSON_VALUE + ";q=0.9");
+        }
+        WebClientConfigProperties.Compression compression = properties.getCompression();
+        if (compression.isResponseEnabled()) {
+            ResponseCompressionMetrics responseCompression = new ResponseCompressionMetrics(meterRegistry);
+            httpClient = httpClient.compress(true).doOnConnected(responseCompression::install);
+            webClientBuilder.defaultHeader(HttpHeaders.ACCEPT_ENCODING, compression.getAcceptEncoding());
+        }
+        boolean metrics = properties.getMetrics().isEnabled();
+        double[] percentiles = properties.getMetrics().getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+        if (metrics) {
+            String basePath = basePath(properties.getBaseUrl());
+            httpClient = httpClient.metrics(true, uri -> uriTagValue(basePath, uri));
+            webClientBuilder.filter(new BeerClientMetricsFilter(meterRegistry, percentiles));
+        }
+        WebClientConfigProperties.Decoding decoding = properties.getDecoding();
+        boolean instrumented = metrics || decoding.isOffloadEnabled();
+        DecodeOffloading offloading = new DecodeOffloading(metrics ? meterRegistry : null, percentiles,
+                decoding.isOffloadEnabled() ? beerDecodeScheduler() : null, decoding.getOffloadThreshold());
+        webClientBuilder.codecs(codecs -> {
+            Jackson2JsonDecoder jsonDecoder = new Jackson2JsonDecoder(objectMapper);
+            codecs.defaultCodecs().jackson2JsonDecoder(instrumented ? offloading.decorate(jsonDecoder) : jsonDecoder);
+            codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+            if (instrumented && properties.getWireFormat() == SMILE) {
+                // custom readers are consulted before the default Smile decoder, which only accepts its own type
+                codecs.customCodecs().register(offloading.decorate(new Jackson2SmileDecoder()));
+            }
+            if (properties.getWireFormat() == CBOR) {
+                Jackson2CborDecoder cborDecoder = new Jackson2CborDecoder();
+                codecs.customCodecs().register(instrumented ? offloading.decorate(cborDecoder) : cborDecoder);
+            }
+        });
+        if (compression.isRequestEnabled()) {
+            webClientBuilder.filter(new RequestCompressionFilter(compression.getRequestThreshold(), meterRegistry));
+        }
+        if (properties.getWiretap().getMode() == FULL) {
+            httpClient = httpClient.wiretap("reactor.netty.client.HttpClient", DEBUG, TEXTUAL);
+        }
+        webClientBuilder.filter(sampledExchangeLoggingFilter());
+        return webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+
+    /**
+     * Releases the pool, event loops and decode scheduler created by this instance; only needed when the
+     * configuration is used outside a Spring context.
+     */
+    @Override
+    public synchronized void dispose() {
+        if (connectionProvider != null) {
+            connectionProvider.dispose();
+        }
+        if (loopResources != null) {
+            loopResources.dispose();
+        }
+        if (decodeScheduler != null) {
+            decodeScheduler.dispose();
+        }
+    }
+
+    private static HttpProtocol[] protocols(WebClientConfigProperties.Http2 http2) {
+        HttpProtocol h2 = http2.isTls() ? HttpProtocol.H2 : HttpProtocol.H2C;
+        return http2.isFallbackToHttp11() ? new HttpProtocol[]{h2, HttpProtocol.HTTP11} : new HttpProtocol[]{h2};
+    }
+
+    /**
+     * Path of the base URL without its trailing slash, empty when the API sits at the root.
+     */
+    static String basePath(String baseUrl) {
+        String path = URI.create(baseUrl).getRawPath();
+        if (path == null) {
+            return "";
+        }
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    /**
+     * Maps a request path to the API template it was rendered from, after removing {@code basePath}, so that
+     * ids and UPCs do not end up in the {@code uri} tag.
+     */
+    static String uriTagValue(String basePath, String uri) {
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        if (!basePath.isEmpty() && path.startsWith(basePath)
+                && (path.length() == basePath.length() || path.charAt(basePath.length()) == '/')) {
+            path = path.substring(basePath.length());
+        }
+        if (path.startsWith(BEER_V2_URL_BY_UPC.substring(0, BEER_V2_URL_BY_UPC.indexOf('{')))) {
+            return BEER_V2_URL_BY_UPC;
+        }
+        if (path.startsWith(BEER_V2_URL_BY_BEERID.substring(0, BEER_V2_URL_BY_BEERID.indexOf('{')))) {
+            return BEER_V2_URL_BY_BEERID;
+        }
+        return path;
     }
 }
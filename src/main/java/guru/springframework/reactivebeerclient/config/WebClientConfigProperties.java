@@ -1,10 +1,297 @@
 package guru.springframework.reactivebeerclient.config;
 
-public class WebClientConfigProperties {
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
-    public static final String BASE_URL = "http://api.springframework.guru";
+@Data
+@ConfigurationProperties(prefix = "beer.client")
+public class WebClientConfigProperties {
 
     public static final String BEER_V2_URL = "/api/v1/beer";
     public static final String BEER_V2_URL_BY_BEERID = "/api/v1/beer/{beerId}";
     public static final String BEER_V2_URL_BY_UPC = "/api/v1/beerUpc/{upc}";
+
+    private String baseUrl = "http://api.springframework.guru";
+
+    /**
+     * Preferred response format. A binary format is requested with JSON as lower-quality alternative, so servers
+     * without support keep answering in JSON. Request bodies are always sent as JSON.
+     */
+    private WireFormat wireFormat = WireFormat.JSON;
+
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Maximum time to wait for the response of a single request once it has been sent.
+     */
+    private Duration responseTimeout = Duration.ofSeconds(10);
+
+    private final EventLoop eventLoop = new EventLoop();
+
+    private final Pool pool = new Pool();
+
+    private final Http2 http2 = new Http2();
+
+    private final Compression compression = new Compression();
+
+    private final Wiretap wiretap = new Wiretap();
+
+    private final Metrics metrics = new Metrics();
+
+    private final Resilience resilience = new Resilience();
+
+    private final ConditionalRequests conditionalRequests = new ConditionalRequests();
+
+    private final ConcurrencyLimit concurrencyLimit = new ConcurrencyLimit();
+
+    private final Decoding decoding = new Decoding();
+
+    /**
+     * Event loops dedicated to the beer client instead of Reactor Netty's shared ones.
+     */
+    @Data
+    public static class EventLoop {
+
+        private String threadPrefix = "beer-client";
+
+        /**
+         * Number of I/O threads; {@code 0} keeps Reactor Netty's default of one per core, at least four.
+         */
+        private int threads = 0;
+
+        /**
+         * Use the native epoll or kqueue transport when it is on the classpath and supported by the OS.
+         */
+        private boolean preferNative = true;
+    }
+
+    @Data
+    public static class Pool {
+
+        private String name = "beer-client";
+
+        private int maxConnections = 50;
+
+        /**
+         * Requests allowed to wait for a connection once the pool is exhausted; beyond that they fail fast.
+         */
+        private int pendingAcquireMaxCount = 500;
+
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Connections idle for longer are closed instead of being reused, which avoids resets from
+         * connections the server or a load balancer has already dropped.
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(20);
+
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        private Duration evictInBackground = Duration.ofSeconds(30);
+    }
+
+    /**
+     * The streams multiplexed on one connection are bounded by the {@code SETTINGS_MAX_CONCURRENT_STREAMS} the
+     * server advertises, the connections by {@code pool.maxConnections}. The client's own SETTINGS value would only
+     * limit streams pushed by the server, and the Reactor Netty version in use has no client-side per-connection
+     * stream cap, so none is configurable here.
+     */
+    @Data
+    public static class Http2 {
+
+        private boolean enabled = false;
+
+        /**
+         * h2 negotiated over TLS with ALPN when set, otherwise h2c over plaintext for internal gateways.
+         * The base URL scheme has to match.
+         */
+        private boolean tls = false;
+
+        /**
+         * Keep HTTP/1.1 as an alternative, through ALPN with TLS or an upgrade request with h2c; without it
+         * h2c connections use prior knowledge.
+         */
+        private boolean fallbackToHttp11 = true;
+    }
+
+    @Data
+    public static class Compression {
+
+        /**
+         * Advertise {@code acceptEncoding} and decompress responses as they stream in.
+         */
+        private boolean responseEnabled = false;
+
+        /**
+         * Brotli is not decoded by the Netty version in use, so only gzip and deflate are offered.
+         */
+        private String acceptEncoding = "gzip, deflate";
+
+        /**
+         * Gzip request bodies of at least {@code requestThreshold} bytes; the server must accept
+         * {@code Content-Encoding: gzip}.
+         */
+        private boolean requestEnabled = false;
+
+        private int requestThreshold = 2048;
+    }
+
+    public enum WireFormat {
+        JSON, SMILE, CBOR
+    }
+
+    public enum WiretapMode {
+        /**
+         * Nothing is installed on the connection; the sampled logging filter is in place but disabled, so it can
+         * still be switched on at runtime.
+         */
+        OFF,
+        /**
+         * Reactor Netty's textual wiretap on every byte of every exchange; for local debugging only.
+         */
+        FULL,
+        /**
+         * Headers of one in {@code sampleRate} exchanges and of every exchange slower than
+         * {@code slowThreshold}, from startup on; {@link SampledExchangeLoggingFilter} can switch it off again.
+         */
+        SAMPLED
+    }
+
+    @Data
+    public static class Wiretap {
+
+        private WiretapMode mode = WiretapMode.OFF;
+
+        private int sampleRate = 100;
+
+        private Duration slowThreshold = Duration.ofSeconds(1);
+
+        /**
+         * Headers whose values the sampled log replaces with a mask; credentials and cookies by default.
+         */
+        private List<String> maskedHeaders = new ArrayList<>(SampledExchangeLoggingFilter.DEFAULT_MASKED_HEADERS);
+    }
+
+    @Data
+    public static class Metrics {
+
+        private boolean enabled = true;
+
+        private List<Double> percentiles = List.of(0.5, 0.95, 0.99);
+    }
+
+    /**
+     * Settings of {@code ResilientBeerClient}, which guards the idempotent lookups.
+     */
+    @Data
+    public static class Resilience {
+
+        private int maxRetries = 2;
+
+        private Duration retryMinBackoff = Duration.ofMillis(100);
+
+        private Duration retryMaxBackoff = Duration.ofSeconds(2);
+
+        private double retryJitter = 0.5;
+
+        private boolean hedgingEnabled = true;
+
+        /**
+         * A second attempt is fired once the first has been outstanding for longer than this percentile
+         * of recently observed latencies.
+         */
+        private double hedgePercentile = 0.95;
+
+        /**
+         * Lower bound of the hedge delay.
+         */
+        private Duration minHedgeDelay = Duration.ofMillis(50);
+
+        /**
+         * Lookups are not hedged until this many latencies have been observed; the percentile is then taken over
+         * the latencies seen so far until the window is full.
+         */
+        private int minHedgeSamples = 20;
+
+        private int latencyWindowSize = 512;
+
+        private float circuitBreakerFailureRateThreshold = 50;
+
+        private int circuitBreakerSlidingWindowSize = 100;
+
+        private int circuitBreakerMinimumNumberOfCalls = 20;
+
+        private Duration circuitBreakerWaitDurationInOpenState = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class ConditionalRequests {
+
+        private boolean enabled = false;
+
+        /**
+         * Number of beers whose validators and decoded bodies are kept for revalidation, a page counting as
+         * many beers as it holds. Catalog walks are never cached.
+         */
+        private long maximumWeight = 10_000;
+    }
+
+    public enum OverloadPolicy {
+        /**
+         * Calls over the limit wait for a slot, up to {@code maxQueueSize} calls for at most {@code maxQueueTime}.
+         */
+        QUEUE,
+        /**
+         * Calls over the limit fail immediately.
+         */
+        SHED
+    }
+
+    /**
+     * Settings of {@code AdaptiveConcurrencyBeerClient}. The limit grows by one per limit's worth of fast calls and
+     * is multiplied by {@code backoffRatio} on every call slower than {@code latencyTolerance} times the baseline
+     * (the shortest latency of the last {@code baselineWindowSize} calls) and on every 5xx or connection error.
+     */
+    @Data
+    public static class ConcurrencyLimit {
+
+        private int initialLimit = 20;
+
+        private int minLimit = 1;
+
+        private int maxLimit = 200;
+
+        private double backoffRatio = 0.9;
+
+        private double latencyTolerance = 2.0;
+
+        private int baselineWindowSize = 100;
+
+        private OverloadPolicy policy = OverloadPolicy.QUEUE;
+
+        private int maxQueueSize = 1000;
+
+        private Duration maxQueueTime = Duration.ofSeconds(5);
+    }
+
+    @Data
+    public static class Decoding {
+
+        /**
+         * Decode aggregated bodies of at least {@code offloadThreshold} bytes on a separate parallel scheduler,
+         * leaving the event loop free for other exchanges.
+         */
+        private boolean offloadEnabled = false;
+
+        private int offloadThreshold = 256 * 1024;
+
+        /**
+         * Threads of the decode scheduler; {@code 0} means one per core.
+         */
+        private int offloadThreads = 0;
+    }
 }
@@ -0,0 +1,32 @@
+package guru.springframework.reactivebeerclient.model;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * A change to apply to a local copy of the catalog.
+ */
+@Value
+public class BeerChangeEvent {
+
+    public enum Type {
+        UPSERT, DELETE
+    }
+
+    Type type;
+    UUID id;
+
+    /**
+     * The beer as it is now; {@code null} for a delete.
+     */
+    BeerDto beer;
+
+    public static BeerChangeEvent upsert(BeerDto beer) {
+        return new BeerChangeEvent(Type.UPSERT, beer.getId(), beer);
+    }
+
+    public static BeerChangeEvent delete(UUID id) {
+        return new BeerChangeEvent(Type.DELETE, id, null);
+    }
+}
@@ -0,0 +1,36 @@
+package guru.springframework.reactivebeerclient.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.net.URI;
+
+/**
+ * Outcome of one item of a bulk create or update.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkResult {
+
+    private BeerDto beer;
+
+    /**
+     * HTTP status of the response, or {@code null} when no response was received.
+     */
+    private Integer statusCode;
+
+    /**
+     * {@code Location} of the created beer.
+     */
+    private URI location;
+
+    private Throwable error;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,96 @@
+package guru.springframework.reactivebeerclient.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Read-only view of a beer for bulk reads, held in primitives: the id as its two UUID halves, the price in
+ * cents, timestamps in epoch milliseconds and the style as the shared {@link BeerStyleEnum} constant.
+ * One decoded beer costs this object and its two strings instead of the dozen objects behind a {@link BeerDto}.
+ */
+@Value
+@JsonDeserialize(using = CompactBeerDtoDeserializer.class)
+public class CompactBeerDto {
+
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    long idMostSignificantBits;
+    long idLeastSignificantBits;
+    String beerName;
+
+    /**
+     * {@code null} when the upstream style is not one of {@link BeerStyleEnum}.
+     */
+    BeerStyleEnum beerStyle;
+    String upc;
+    long priceCents;
+
+    /**
+     * {@code 0} when the upstream value is absent.
+     */
+    int quantityOnHand;
+
+    /**
+     * {@link #NO_TIMESTAMP} when absent, like {@code lastUpdatedEpochMillis}.
+     */
+    long createdEpochMillis;
+    long lastUpdatedEpochMillis;
+
+    public UUID getId() {
+        return new UUID(idMostSignificantBits, idLeastSignificantBits);
+    }
+
+    /**
+     * {@code false} when the upstream id is absent, which is held as the nil UUID.
+     */
+    public boolean hasId() {
+        return idMostSignificantBits != 0 || idLeastSignificantBits != 0;
+    }
+
+    public BeerDto toBeerDto() {
+        return BeerDto.builder()
+                .id(getId())
+                .beerName(beerName)
+                .beerStyle(beerStyle == null ? null : beerStyle.name())
+                .upc(upc)
+                .price(BigDecimal.valueOf(priceCents, 2))
+                .quantityOnHand(quantityOnHand)
+                .createdDate(toOffsetDateTime(createdEpochMillis))
+                .lastUpdatedDate(toOffsetDateTime(lastUpdatedEpochMillis))
+                .build();
+    }
+
+    public static CompactBeerDto from(BeerDto beer) {
+        UUID id = beer.getId();
+        return new CompactBeerDto(id == null ? 0 : id.getMostSignificantBits(), id == null ? 0 : id.getLeastSignificantBits(),
+                beer.getBeerName(), style(beer.getBeerStyle()), beer.getUpc(),
+                beer.getPrice() == null ? 0 : beer.getPrice().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact(),
+                beer.getQuantityOnHand() == null ? 0 : beer.getQuantityOnHand(),
+                toEpochMillis(beer.getCreatedDate()), toEpochMillis(beer.getLastUpdatedDate()));
+    }
+
+    private static BeerStyleEnum style(String name) {
+        for (BeerStyleEnum style : BeerStyleEnum.values()) {
+            if (style.name().equals(name)) {
+                return style;
+            }
+        }
+        return null;
+    }
+
+    private static long toEpochMillis(OffsetDateTime dateTime) {
+        return dateTime == null ? NO_TIMESTAMP : dateTime.toInstant().toEpochMilli();
+    }
+
+    private static OffsetDateTime toOffsetDateTime(long epochMillis) {
+        return epochMillis == NO_TIMESTAMP ? null : Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC);
+    }
+}
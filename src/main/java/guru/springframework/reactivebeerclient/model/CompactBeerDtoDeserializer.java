@@ -0,0 +1,246 @@
+package guru.springframework.reactivebeerclient.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static com.fasterxml.jackson.core.JsonToken.*;
+import static guru.springframework.reactivebeerclient.model.CompactBeerDto.NO_TIMESTAMP;
+
+/**
+ * Reads a beer object straight into a {@link CompactBeerDto}. Ids, prices, timestamps and styles are parsed from
+ * the parser's character buffer, so on a streaming parser nothing but the name and UPC strings is allocated per
+ * field. Buffered parsers such as {@code TokenBuffer} hand out copies of their text instead.
+ */
+public class CompactBeerDtoDeserializer extends StdDeserializer<CompactBeerDto> {
+
+    private static final BeerStyleEnum[] STYLES = BeerStyleEnum.values();
+
+    public CompactBeerDtoDeserializer() {
+        super(CompactBeerDto.class);
+    }
+
+    @Override
+    public CompactBeerDto deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        long msb = 0;
+        long lsb = 0;
+        String beerName = null;
+        BeerStyleEnum beerStyle = null;
+        String upc = null;
+        long priceCents = 0;
+        int quantityOnHand = 0;
+        long created = NO_TIMESTAMP;
+        long lastUpdated = NO_TIMESTAMP;
+
+        JsonToken token = p.currentToken() == START_OBJECT ? p.nextToken() : p.currentToken();
+        for (; token == FIELD_NAME; token = p.nextToken()) {
+            String field = p.getCurrentName();
+            if (p.nextToken() == VALUE_NULL) {
+                continue;
+            }
+            try {
+                switch (field) {
+                    case "id":
+                        char[] id = p.getTextCharacters();
+                        int offset = p.getTextOffset();
+                        if (p.getTextLength() != 36) {
+                            throw new IllegalArgumentException("not a UUID");
+                        }
+                        msb = hex(id, offset, 8) << 32 | hex(id, offset + 9, 4) << 16 | hex(id, offset + 14, 4);
+                        lsb = hex(id, offset + 19, 4) << 48 | hex(id, offset + 24, 12);
+                        break;
+                    case "beerName":
+                        beerName = p.getText();
+                        break;
+                    case "beerStyle":
+                        beerStyle = style(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+                        break;
+                    case "upc":
+                        upc = p.getText();
+                        break;
+                    case "price":
+                        priceCents = cents(p);
+                        break;
+                    case "quantityOnHand":
+                        quantityOnHand = p.getIntValue();
+                        break;
+                    case "createdDate":
+                        created = epochMillis(p);
+                        break;
+                    case "lastUpdatedDate":
+                        lastUpdated = epochMillis(p);
+                        break;
+                    default:
+                        p.skipChildren();
+                }
+            } catch (IllegalArgumentException e) {
+                throw JsonMappingException.from(p, "Cannot read " + field + " of CompactBeerDto: " + e.getMessage(), e);
+            }
+        }
+        return new CompactBeerDto(msb, lsb, beerName, beerStyle, upc, priceCents, quantityOnHand, created, lastUpdated);
+    }
+
+    private static BeerStyleEnum style(char[] chars, int offset, int length) {
+        for (BeerStyleEnum style : STYLES) {
+            String name = style.name();
+            if (name.length() == length && regionMatches(name, chars, offset)) {
+                return style;
+            }
+        }
+        return null;
+    }
+
+    private static boolean regionMatches(String name, char[] chars, int offset) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long cents(JsonParser p) throws IOException {
+        if (p.currentToken() == VALUE_NUMBER_INT) {
+            return p.getLongValue() * 100;
+        }
+        char[] chars = p.getTextCharacters();
+        int start = p.getTextOffset();
+        int end = start + p.getTextLength();
+        int i = start;
+        boolean negative = i < end && chars[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long units = 0;
+        for (; i < end && chars[i] != '.'; i++) {
+            if (!isDigit(chars[i])) {
+                return cents(new BigDecimal(chars, start, end - start));
+            }
+            units = units * 10 + (chars[i] - '0');
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        for (i++; i < end; i++) {
+            if (!isDigit(chars[i])) {
+                return cents(new BigDecimal(chars, start, end - start));
+            }
+            if (fractionDigits < 2) {
+                fraction = fraction * 10 + (chars[i] - '0');
+            } else if (fractionDigits == 2) {
+                roundUp = chars[i] >= '5';
+            }
+            fractionDigits++;
+        }
+        for (; fractionDigits < 2; fractionDigits++) {
+            fraction *= 10;
+        }
+        long cents = units * 100 + fraction + (roundUp ? 1 : 0);
+        return negative ? -cents : cents;
+    }
+
+    private static long cents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * ISO-8601 offset date-time ({@code 2021-05-17T07:13:27.18Z}, {@code 2021-05-17T09:13:27+02:00}), or epoch seconds
+     * when the server writes dates as numbers.
+     */
+    private static long epochMillis(JsonParser p) throws IOException {
+        if (p.currentToken() == VALUE_NUMBER_INT) {
+            return p.getLongValue() * 1000;
+        }
+        if (p.currentToken() == VALUE_NUMBER_FLOAT) {
+            return p.getDecimalValue().movePointRight(3).longValue();
+        }
+        char[] c = p.getTextCharacters();
+        int start = p.getTextOffset();
+        int end = start + p.getTextLength();
+        if (end - start < 19 || c[start + 4] != '-' || c[start + 10] != 'T') {
+            throw new IllegalArgumentException("not an ISO-8601 date-time");
+        }
+        long epochDay = epochDay(digits(c, start, 4), digits(c, start + 5, 2), digits(c, start + 8, 2));
+        long seconds = epochDay * 86_400 + digits(c, start + 11, 2) * 3_600L + digits(c, start + 14, 2) * 60L
+                + digits(c, start + 17, 2);
+        int i = start + 19;
+        long millis = 0;
+        if (i < end && c[i] == '.') {
+            int scale = 100;
+            for (i++; i < end && isDigit(c[i]); i++) {
+                millis += (c[i] - '0') * scale;
+                scale /= 10;
+            }
+        }
+        if (i < end && (c[i] == '+' || c[i] == '-')) {
+            long offsetSeconds = offsetSeconds(c, i + 1, end);
+            seconds -= c[i] == '+' ? offsetSeconds : -offsetSeconds;
+        }
+        return seconds * 1000 + millis;
+    }
+
+    /**
+     * The {@code hh}, {@code hhmm} or {@code hh:mm} after the sign of a zone offset.
+     */
+    private static long offsetSeconds(char[] c, int start, int end) {
+        switch (end - start) {
+            case 2:
+                return digits(c, start, 2) * 3_600L;
+            case 4:
+                return digits(c, start, 2) * 3_600L + digits(c, start + 2, 2) * 60L;
+            case 5:
+                if (c[start + 2] == ':') {
+                    return digits(c, start, 2) * 3_600L + digits(c, start + 3, 2) * 60L;
+                }
+                // fall through
+            default:
+                throw new IllegalArgumentException("not a zone offset");
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    private static int digits(char[] chars, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            if (!isDigit(chars[i])) {
+                throw new IllegalArgumentException("unexpected character '" + chars[i] + "'");
+            }
+            value = value * 10 + (chars[i] - '0');
+        }
+        return value;
+    }
+
+    private static long hex(char[] chars, int offset, int count) {
+        long value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int digit = Character.digit(chars[i], 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("unexpected character '" + chars[i] + "'");
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
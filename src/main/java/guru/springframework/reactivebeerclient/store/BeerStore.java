@@ -0,0 +1,389 @@
+package guru.springframework.reactivebeerclient.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Append-only file of beers keyed by id and UPC, read through a memory mapping. Opening a store scans the log
+ * once to rebuild the in-memory index, without decoding any beer, so a restarted process starts from the beers
+ * it had already seen.
+ * <p>
+ * The file starts with a magic number and a format version; a file written in another format is discarded.
+ * Every record is {@code length, CRC32, payload}, the payload holding the record type, the time it was written,
+ * the id, the UPC and, for puts, the beer as JSON. Scanning stops at the first record that is cut short or
+ * fails its checksum and the file is truncated there, which drops a write torn by a crash.
+ * <p>
+ * The mapping grows geometrically ahead of the log, the file being extended with zeros to match; a zero record
+ * length marks the end of the log and the zeros are cut off again on close. A mapping is limited to 2 GB, so
+ * an append that would grow the log past that compacts the store first and is rejected if that does not help.
+ * Reads share a read lock; appends and compaction take the write lock, so a read never sees the index of one
+ * file with the mapping of another.
+ */
+@Slf4j
+public class BeerStore implements Closeable {
+
+    static final int MAGIC = 0x42454552;
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int PAYLOAD_HEADER_SIZE = 27;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final long COMPACTION_THRESHOLD = 1 << 20;
+    private static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+    private static final int MIN_MAPPING_SIZE = 1 << 16;
+    private static final int MAX_UPC_LENGTH = 0xFFFF;
+
+    private final Path path;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, UUID> idsByUpc = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object remapLock = new Object();
+
+    private FileChannel channel;
+    private volatile MappedByteBuffer mapped;
+    private long end;
+    private long liveBytes;
+
+    private BeerStore(Path path) {
+        this.path = path;
+    }
+
+    public static BeerStore open(Path path) throws IOException {
+        BeerStore store = new BeerStore(path);
+        store.load();
+        return store;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Optional<Stored> get(UUID id) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            Entry entry = entries.get(id);
+            return entry == null ? Optional.empty() : Optional.of(read(entry));
+        } finally {
+            read.unlock();
+        }
+    }
+
+    public Optional<Stored> getByUpc(String upc) {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            UUID id = idsByUpc.get(upc);
+            Entry entry = id == null ? null : entries.get(id);
+            return entry == null ? Optional.empty() : Optional.of(read(entry));
+        } finally {
+            read.unlock();
+        }
+    }
+
+    public void put(BeerDto beer) {
+        if (beer.getId() == null) {
+            throw new IllegalArgumentException("Only beers with an id can be stored");
+        }
+        try {
+            append(PUT, beer.getId(), beer.getUpc(), objectMapper.writeValueAsBytes(beer));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(UUID id) {
+        append(DELETE, id, null, new byte[0]);
+    }
+
+    /**
+     * Rewrites the file with only the live records, replacing the old one atomically.
+     */
+    public void compact() throws IOException {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            compactLocked();
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel target = FileChannel.open(compacted, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            target.write(header());
+            for (Entry entry : entries.values()) {
+                ByteBuffer record = mapped(entry.offset, RECORD_HEADER_SIZE + entry.length);
+                while (record.hasRemaining()) {
+                    target.write(record);
+                }
+            }
+            target.force(true);
+        }
+        channel.close();
+        Files.move(compacted, path, ATOMIC_MOVE, REPLACE_EXISTING);
+        entries.clear();
+        idsByUpc.clear();
+        load();
+    }
+
+    /**
+     * Flushes appended records to the storage device.
+     */
+    public void force() throws IOException {
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            channel.force(false);
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Cuts the zeros the mapping was grown into off the end of the file and closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            channel.truncate(end);
+            channel.force(true);
+            channel.close();
+        } finally {
+            write.unlock();
+        }
+    }
+
+    /**
+     * Called from {@link #open(Path)} before the store is shared, and from compaction under the write lock.
+     */
+    private void load() throws IOException {
+        channel = FileChannel.open(path, CREATE, READ, WRITE);
+        long size = channel.size();
+        if (size > MAX_FILE_SIZE) {
+            throw new IOException(path + " is larger than a beer store can be");
+        }
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (size < HEADER_SIZE || mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+            if (size > 0) {
+                log.warn("Discarding {}: not a beer store of version {}", path, VERSION);
+            }
+            channel.truncate(0);
+            channel.write(header(), 0);
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            end = HEADER_SIZE;
+            liveBytes = 0;
+            return;
+        }
+
+        long position = HEADER_SIZE;
+        liveBytes = 0;
+        CRC32 crc = new CRC32();
+        boolean zeroTail = false;
+        while (position + RECORD_HEADER_SIZE <= size) {
+            int length = mapped.getInt((int) position);
+            if (length == 0) {
+                zeroTail = true;
+                break;
+            }
+            if (length < PAYLOAD_HEADER_SIZE || position + RECORD_HEADER_SIZE + length > size) {
+                break;
+            }
+            crc.reset();
+            crc.update(mapped(position + RECORD_HEADER_SIZE, length));
+            if ((int) crc.getValue() != mapped.getInt((int) position + 4)) {
+                break;
+            }
+            index(position, length);
+            position += RECORD_HEADER_SIZE + length;
+        }
+        if (position < size) {
+            if (!zeroTail) {
+                log.warn("Truncating {} at offset {}: the record there is incomplete or fails its checksum", path, position);
+            }
+            channel.truncate(position);
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, position);
+        }
+        end = position;
+
+        long garbage = end - HEADER_SIZE - liveBytes;
+        if (garbage > liveBytes && garbage > COMPACTION_THRESHOLD) {
+            compactLocked();
+        }
+    }
+
+    private void index(long position, int length) {
+        int payload = (int) position + RECORD_HEADER_SIZE;
+        byte type = mapped.get(payload);
+        long writtenAt = mapped.getLong(payload + 1);
+        UUID id = new UUID(mapped.getLong(payload + 9), mapped.getLong(payload + 17));
+        int upcLength = Short.toUnsignedInt(mapped.getShort(payload + 25));
+        String upc = null;
+        if (upcLength > 0) {
+            byte[] upcBytes = new byte[upcLength];
+            mapped(payload + PAYLOAD_HEADER_SIZE, upcLength).get(upcBytes);
+            upc = new String(upcBytes, UTF_8);
+        }
+        if (type == PUT) {
+            replace(id, new Entry(position, length, writtenAt, upc, upcLength));
+        } else {
+            replace(id, null);
+        }
+    }
+
+    private void replace(UUID id, Entry entry) {
+        Entry previous = entry == null ? entries.remove(id) : entries.put(id, entry);
+        if (previous != null) {
+            liveBytes -= RECORD_HEADER_SIZE + previous.length;
+            if (previous.upc != null) {
+                idsByUpc.remove(previous.upc, id);
+            }
+        }
+        if (entry != null) {
+            liveBytes += RECORD_HEADER_SIZE + entry.length;
+            if (entry.upc != null) {
+                idsByUpc.put(entry.upc, id);
+            }
+        }
+    }
+
+    private void append(byte type, UUID id, String upc, byte[] json) {
+        byte[] upcBytes = upc == null ? new byte[0] : upc.getBytes(UTF_8);
+        if (upcBytes.length > MAX_UPC_LENGTH) {
+            throw new IllegalArgumentException("UPC of beer " + id + " is longer than " + MAX_UPC_LENGTH + " bytes");
+        }
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            if (type == DELETE && !entries.containsKey(id)) {
+                return;
+            }
+            appendLocked(type, id, upc, upcBytes, json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private void appendLocked(byte type, UUID id, String upc, byte[] upcBytes, byte[] json) throws IOException {
+        long writtenAt = Instant.now().toEpochMilli();
+        int length = PAYLOAD_HEADER_SIZE + upcBytes.length + json.length;
+        if (end + RECORD_HEADER_SIZE + length > MAX_FILE_SIZE && end - HEADER_SIZE > liveBytes) {
+            compactLocked();
+        }
+        if (end + RECORD_HEADER_SIZE + length > MAX_FILE_SIZE) {
+            throw new IllegalStateException(path + " would grow past " + MAX_FILE_SIZE + " bytes");
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        record.putInt(length).putInt(0).put(type).putLong(writtenAt)
+                .putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+                .putShort((short) upcBytes.length).put(upcBytes).put(json);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_SIZE, length);
+        record.putInt(4, (int) crc.getValue()).flip();
+        long position = end;
+        while (record.hasRemaining()) {
+            position += channel.write(record, position);
+        }
+        replace(id, type == PUT ? new Entry(end, length, writtenAt, upc, upcBytes.length) : null);
+        end = position;
+    }
+
+    private Stored read(Entry entry) {
+        int jsonOffset = PAYLOAD_HEADER_SIZE + entry.upcLength;
+        byte[] json = new byte[entry.length - jsonOffset];
+        mapped(entry.offset + RECORD_HEADER_SIZE + jsonOffset, json.length).get(json);
+        try {
+            return new Stored(objectMapper.readValue(json, BeerDto.class), Instant.ofEpochMilli(entry.writtenAt));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A read-only view of {@code length} bytes at {@code offset}, remapping the file first when the range was
+     * appended after the current mapping was made. The new mapping is at least twice the old one, so a growing
+     * log is remapped a logarithmic number of times; the file is extended with zeros up to the mapped size.
+     */
+    private ByteBuffer mapped(long offset, int length) {
+        MappedByteBuffer current = mapped;
+        if (offset + length > current.capacity()) {
+            synchronized (remapLock) {
+                current = mapped;
+                if (offset + length > current.capacity()) {
+                    long size = Math.min(MAX_FILE_SIZE, Math.max(Math.max(offset + length, MIN_MAPPING_SIZE),
+                            2L * current.capacity()));
+                    try {
+                        if (channel.size() < size) {
+                            channel.write(ByteBuffer.allocate(1), size - 1);
+                        }
+                        current = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    mapped = current;
+                }
+            }
+        }
+        return current.duplicate().position((int) offset).limit((int) offset + length);
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+    }
+
+    private static final class Entry {
+
+        final long offset;
+        final int length;
+        final long writtenAt;
+        final String upc;
+        final int upcLength;
+
+        Entry(long offset, int length, long writtenAt, String upc, int upcLength) {
+            this.offset = offset;
+            this.length = length;
+            this.writtenAt = writtenAt;
+            this.upc = upc;
+            this.upcLength = upcLength;
+        }
+    }
+
+    @Value
+    public static class Stored {
+        BeerDto beer;
+        Instant writtenAt;
+    }
+}
@@ -0,0 +1,172 @@
+package guru.springframework.reactivebeerclient.sync;
+
+import guru.springframework.reactivebeerclient.client.BeerClient;
+import guru.springframework.reactivebeerclient.model.BeerChangeEvent;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a local copy of the catalog in step with the service by emitting only what changed since the previous
+ * pass. A beer counts as changed when its {@code lastUpdatedDate} (or {@code createdDate} if it was never updated)
+ * is later than the one last emitted for it; the latest of these dates is kept as the watermark of the next pass.
+ * <p>
+ * Changed beers come from a {@link ChangeFeed} when the service offers one. Otherwise the pages are walked,
+ * stopping at the first page older than the watermark when the service lists the newest beers first. A walk
+ * over every page also detects deleted beers; feeds and early-stopping walks need a periodic {@link #reconcile()}
+ * for that. Passes must not overlap.
+ * <p>
+ * A beer missing from a walk is not necessarily gone: a delete or insert while the walk is under way shifts the
+ * later pages, and a beer can slip from a page not yet read onto one already read. Every missing beer is therefore
+ * looked up by id, and only a {@code 404} turns into a delete; a beer that is still there counts as listed, and
+ * one whose lookup fails is checked again by the next complete pass.
+ */
+public class BeerSyncEngine {
+
+    /**
+     * Server-side query for the beers modified at or after the given instant.
+     */
+    @FunctionalInterface
+    public interface ChangeFeed {
+        Flux<BeerDto> changedSince(OffsetDateTime watermark);
+    }
+
+    private static final int DELETE_CHECK_CONCURRENCY = 4;
+
+    private final BeerClient beerClient;
+    private final int pageSize;
+    private final boolean newestFirst;
+    private final ChangeFeed changeFeed;
+
+    private final Map<UUID, OffsetDateTime> known = new ConcurrentHashMap<>();
+    private volatile OffsetDateTime watermark;
+
+    /**
+     * Syncs by walking the pages; {@code newestFirst} tells that the service orders them by descending
+     * modification date, which lets a pass stop early.
+     */
+    public BeerSyncEngine(BeerClient beerClient, int pageSize, boolean newestFirst) {
+        this(beerClient, pageSize, newestFirst, null);
+    }
+
+    public BeerSyncEngine(BeerClient beerClient, int pageSize, ChangeFeed changeFeed) {
+        this(beerClient, pageSize, false, changeFeed);
+    }
+
+    private BeerSyncEngine(BeerClient beerClient, int pageSize, boolean newestFirst, ChangeFeed changeFeed) {
+        this.beerClient = beerClient;
+        this.pageSize = pageSize;
+        this.newestFirst = newestFirst;
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * {@code null} until a first pass completed.
+     */
+    public OffsetDateTime getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Changes since the previous pass; the first pass walks every page and emits the whole catalog.
+     */
+    public Flux<BeerChangeEvent> sync() {
+        return Flux.defer(() -> {
+            OffsetDateTime since = watermark;
+            if (since == null) {
+                return pass(walk(since), true);
+            } else if (changeFeed != null) {
+                return pass(changeFeed.changedSince(since), false);
+            }
+            return pass(walk(since), !newestFirst);
+        });
+    }
+
+    /**
+     * Walks every page, emitting the beers changed since the previous pass and a delete for every beer that is
+     * no longer listed.
+     */
+    public Flux<BeerChangeEvent> reconcile() {
+        return Flux.defer(() -> pass(walk(null), true));
+    }
+
+    private Flux<BeerChangeEvent> pass(Flux<BeerDto> candidates, boolean complete) {
+        Set<UUID> listed = ConcurrentHashMap.newKeySet();
+        AtomicReference<OffsetDateTime> latest = new AtomicReference<>(watermark);
+        Flux<BeerChangeEvent> upserts = candidates
+                .filter(beer -> beer.getId() != null)
+                .doOnNext(beer -> listed.add(beer.getId()))
+                .filter(beer -> changed(beer, latest))
+                .map(BeerChangeEvent::upsert);
+        Flux<BeerChangeEvent> events = complete ? upserts.concatWith(Flux.defer(() -> deletes(listed, latest))) : upserts;
+        return events.doOnComplete(() -> watermark = latest.get());
+    }
+
+    /**
+     * Records {@code beer} as seen and tells whether it is new or modified since it was last seen.
+     */
+    private boolean changed(BeerDto beer, AtomicReference<OffsetDateTime> latest) {
+        OffsetDateTime modified = modified(beer);
+        if (modified != null) {
+            latest.accumulateAndGet(modified, (a, b) -> a == null || b.isAfter(a) ? b : a);
+        }
+        OffsetDateTime previous = known.put(beer.getId(), modified == null ? OffsetDateTime.MIN : modified);
+        return previous == null || (modified != null && modified.isAfter(previous));
+    }
+
+    private Flux<BeerChangeEvent> deletes(Set<UUID> listed, AtomicReference<OffsetDateTime> latest) {
+        return Flux.fromIterable(List.copyOf(known.keySet()))
+                .filter(id -> !listed.contains(id))
+                .flatMapSequential(id -> confirmDeleted(id, latest), DELETE_CHECK_CONCURRENCY);
+    }
+
+    /**
+     * A delete when the service answers {@code 404} for {@code id}, an upsert when the beer turns out to be there
+     * and changed, and nothing otherwise.
+     */
+    private Mono<BeerChangeEvent> confirmDeleted(UUID id, AtomicReference<OffsetDateTime> latest) {
+        return beerClient.getBeerById(id)
+                .filter(beer -> id.equals(beer.getId()) && changed(beer, latest))
+                .map(BeerChangeEvent::upsert)
+                .onErrorResume(WebClientResponseException.NotFound.class, notFound -> {
+                    known.remove(id);
+                    return Mono.just(BeerChangeEvent.delete(id));
+                })
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    /**
+     * Every page or, when the pages are newest first and {@code since} is set, the pages up to the first one that
+     * ends with a beer modified before {@code since}.
+     */
+    private Flux<BeerDto> walk(OffsetDateTime since) {
+        boolean stopEarly = newestFirst && since != null;
+        return page(0)
+                .expand(page -> page.hasNext() && !(stopEarly && endsBefore(page, since)) ? page(page.getNumber() + 1) : Mono.empty())
+                .concatMapIterable(BeerPagedList::getContent);
+    }
+
+    private Mono<BeerPagedList> page(int pageNumber) {
+        return beerClient.listBeers(pageNumber, pageSize, null, null, true);
+    }
+
+    private static boolean endsBefore(BeerPagedList page, OffsetDateTime since) {
+        List<BeerDto> content = page.getContent();
+        OffsetDateTime modified = content.isEmpty() ? null : modified(content.get(content.size() - 1));
+        return modified != null && modified.isBefore(since);
+    }
+
+    private static OffsetDateTime modified(BeerDto beer) {
+        return beer.getLastUpdatedDate() != null ? beer.getLastUpdatedDate() : beer.getCreatedDate();
+    }
+}
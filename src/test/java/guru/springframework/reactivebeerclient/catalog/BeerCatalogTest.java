@@ -0,0 +1,206 @@
+package guru.springframework.reactivebeerclient.catalog;
+
+import guru.springframework.reactivebeerclient.client.BeerClient;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BeerCatalogTest {
+
+    private final BeerDto galaxyCat = beer("Galaxy Cat", PALE_ALE.name(), "9122089364369");
+    private final BeerDto mangoBobs = beer("Mango Bobs", ALE.name(), "0631234200036");
+    private final BeerDto mangoTango = beer("Mango Tango", IPA.name(), "0083783375213");
+    private final BeerDto mangoSunrise = beer("Mango Sunrise", ALE.name(), null);
+
+    private final BeerClient beerClient = mock(BeerClient.class);
+    private BeerCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        when(beerClient.listCompactBeers(anyInt(), anyInt(), isNull(), isNull(), eq(true))).thenReturn(Flux.empty());
+        servePages(100, List.of(mangoTango, galaxyCat, mangoBobs, mangoSunrise));
+        catalog = new BeerCatalog(beerClient, 100, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.close();
+    }
+
+    @Test
+    void emptyUntilRefreshed() {
+        try (BeerCatalogSnapshot empty = catalog.snapshot()) {
+            assertEquals(0, empty.size());
+            assertTrue(empty.findById(mangoBobs.getId()).isEmpty());
+        }
+
+        catalog.refresh().block().close();
+
+        try (BeerCatalogSnapshot loaded = catalog.snapshot()) {
+            assertEquals(4, loaded.size());
+        }
+    }
+
+    @Test
+    void findsByIdAndUpc() {
+        try (BeerCatalogSnapshot snapshot = catalog.refresh().block()) {
+            CompactBeerDto found = snapshot.findById(mangoBobs.getId()).orElseThrow();
+            assertEquals("Mango Bobs", found.getBeerName());
+            assertEquals(ALE, found.getBeerStyle());
+            assertEquals(1299, found.getPriceCents());
+            assertEquals(galaxyCat.getId(), snapshot.findByUpc("9122089364369").orElseThrow().getId());
+            assertNull(snapshot.findById(mangoSunrise.getId()).orElseThrow().getUpc());
+            assertTrue(snapshot.findById(UUID.randomUUID()).isEmpty());
+            assertTrue(snapshot.findByUpc("0000000000000").isEmpty());
+        }
+    }
+
+    @Test
+    void filtersByNamePrefixAndStyleInNameOrder() {
+        try (BeerCatalogSnapshot snapshot = catalog.refresh().block()) {
+            assertEquals(List.of("Mango Bobs", "Mango Sunrise", "Mango Tango"), names(snapshot.find("Mango", null, 0, 10)));
+            assertEquals(List.of("Mango Bobs", "Mango Sunrise"), names(snapshot.find("Mango", ALE, 0, 10)));
+            assertEquals(List.of("Mango Bobs", "Mango Sunrise"), names(snapshot.find(null, ALE, 0, 10)));
+            assertTrue(snapshot.find("Zebra", null, 0, 10).isEmpty());
+
+            Page<CompactBeerDto> second = snapshot.find(null, null, 1, 3);
+            assertEquals(List.of("Mango Tango"), names(second));
+            assertEquals(4, second.getTotalElements());
+            assertEquals(2, snapshot.find("Mango", ALE, 1, 1).getTotalElements());
+        }
+    }
+
+    @Test
+    void walksEveryPageTheServiceReports() {
+        servePages(2, List.of(mangoTango, galaxyCat), List.of(mangoBobs, mangoSunrise));
+        BeerCatalog pagedCatalog = new BeerCatalog(beerClient, 2, 2);
+
+        try (BeerCatalogSnapshot snapshot = pagedCatalog.refresh().block()) {
+            assertEquals(4, snapshot.size());
+            assertEquals(List.of("Galaxy Cat", "Mango Bobs", "Mango Sunrise", "Mango Tango"),
+                    names(snapshot.find(null, null, 0, 10)));
+        } finally {
+            pagedCatalog.close();
+        }
+    }
+
+    @Test
+    void walksPastPagesShorterThanRequestedWhenTheServiceCapsThePageSize() {
+        servePages(100, List.of(mangoTango), List.of(galaxyCat), List.of(mangoBobs), List.of(mangoSunrise));
+
+        try (BeerCatalogSnapshot snapshot = catalog.refresh().block()) {
+            assertEquals(4, snapshot.size());
+        }
+        verify(beerClient).listCompactBeers(eq(3), eq(100), isNull(), isNull(), eq(true));
+        verify(beerClient, never()).listCompactBeers(eq(4), anyInt(), isNull(), isNull(), eq(true));
+    }
+
+    @Test
+    void skipsBeersWithoutAnIdAndKeepsTheLastOfADuplicateId() {
+        BeerDto anonymous = beer("Anonymous", ALE.name(), "1111111111111");
+        anonymous.setId(null);
+        BeerDto renamed = beer("Mango Bobs Reserve", ALE.name(), "0631234200036");
+        renamed.setId(mangoBobs.getId());
+        servePages(100, List.of(mangoBobs, anonymous, galaxyCat, renamed));
+
+        try (BeerCatalogSnapshot snapshot = catalog.refresh().block()) {
+            assertEquals(2, snapshot.size());
+            assertEquals("Mango Bobs Reserve", snapshot.findById(mangoBobs.getId()).orElseThrow().getBeerName());
+            assertTrue(snapshot.findByUpc("1111111111111").isEmpty());
+            assertEquals(List.of("Galaxy Cat", "Mango Bobs Reserve"), names(snapshot.find(null, null, 0, 10)));
+        }
+    }
+
+    @Test
+    void retiresAReplacedSnapshotOnceItsLastReaderClosesIt() {
+        catalog.refresh().block().close();
+        BeerCatalogSnapshot reader = catalog.snapshot();
+
+        catalog.refresh().block().close();
+
+        assertEquals("Mango Bobs", reader.findById(mangoBobs.getId()).orElseThrow().getBeerName());
+        reader.close();
+        assertThrows(IllegalStateException.class, () -> reader.findById(mangoBobs.getId()));
+        try (BeerCatalogSnapshot current = catalog.snapshot()) {
+            assertNotSame(reader, current);
+            assertEquals(4, current.size());
+        }
+    }
+
+    @Test
+    void theEmptySnapshotIsNotReferenceCounted() {
+        int references = BeerCatalogSnapshot.EMPTY.references.get();
+        BeerCatalogSnapshot.EMPTY.references.set(Integer.MAX_VALUE);
+        try {
+            for (int i = 0; i < 3; i++) {
+                try (BeerCatalogSnapshot empty = catalog.snapshot()) {
+                    assertSame(BeerCatalogSnapshot.EMPTY, empty);
+                    assertTrue(empty.findById(mangoBobs.getId()).isEmpty());
+                }
+            }
+            assertEquals(Integer.MAX_VALUE, BeerCatalogSnapshot.EMPTY.references.get());
+        } finally {
+            BeerCatalogSnapshot.EMPTY.references.set(references);
+        }
+    }
+
+    @Test
+    void refusesAHolderPastTheLastCount() {
+        try (BeerCatalogSnapshot snapshot = catalog.refresh().block()) {
+            snapshot.references.set(Integer.MAX_VALUE - 1);
+
+            assertTrue(snapshot.tryRetain());
+            assertThrows(IllegalStateException.class, snapshot::tryRetain);
+            assertEquals(Integer.MAX_VALUE, snapshot.references.get());
+        }
+    }
+
+    /**
+     * Serves {@code pages} for a request of {@code requestedSize} beers per page: the first through
+     * {@code listBeers}, reporting the page count at the served size, the rest through {@code listCompactBeers}.
+     */
+    @SafeVarargs
+    private void servePages(int requestedSize, List<BeerDto>... pages) {
+        long total = 0;
+        for (List<BeerDto> page : pages) {
+            total += page.size();
+        }
+        when(beerClient.listBeers(eq(0), eq(requestedSize), isNull(), isNull(), eq(true)))
+                .thenReturn(Mono.just(new BeerPagedList(pages[0], PageRequest.of(0, Math.max(pages[0].size(), 1)), total)));
+        for (int number = 1; number < pages.length; number++) {
+            when(beerClient.listCompactBeers(eq(number), eq(requestedSize), isNull(), isNull(), eq(true)))
+                    .thenReturn(Flux.fromIterable(pages[number]).map(CompactBeerDto::from));
+        }
+    }
+
+    private static List<String> names(Page<CompactBeerDto> page) {
+        return page.getContent().stream().map(CompactBeerDto::getBeerName).collect(Collectors.toList());
+    }
+
+    private static BeerDto beer(String name, String style, String upc) {
+        return BeerDto.builder().id(UUID.randomUUID()).beerName(name).beerStyle(style).upc(upc)
+                .price(new BigDecimal("12.99")).quantityOnHand(10).build();
+    }
+}
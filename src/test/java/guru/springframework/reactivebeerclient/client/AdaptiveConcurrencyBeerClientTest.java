@@ -0,0 +1,113 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.config.WebClientConfigProperties;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.OverloadPolicy.SHED;
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.SAISON;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdaptiveConcurrencyBeerClientTest {
+
+    private final BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+            .beerStyle(SAISON.name()).upc("354354879832").build();
+
+    private final WebClientConfigProperties.ConcurrencyLimit settings = new WebClientConfigProperties.ConcurrencyLimit();
+
+    private BeerClient delegate;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(BeerClient.class);
+        settings.setInitialLimit(2);
+        settings.setMaxQueueTime(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void queuedCallsRunWhenASlotFreesUp() {
+        Sinks.One<BeerDto> first = Sinks.one();
+        when(delegate.getBeerById(any())).thenReturn(first.asMono(), Mono.never(), Mono.just(kingFisher));
+        AdaptiveConcurrencyBeerClient beerClient = new AdaptiveConcurrencyBeerClient(delegate, settings);
+
+        beerClient.getBeerById(UUID.randomUUID()).subscribe();
+        beerClient.getBeerById(UUID.randomUUID()).subscribe();
+        Mono<BeerDto> queued = beerClient.getBeerById(kingFisher.getId()).cache();
+        queued.subscribe();
+        assertEquals(2, beerClient.getInFlight());
+        assertEquals(1, beerClient.getQueued());
+
+        first.tryEmitValue(kingFisher);
+
+        assertEquals(kingFisher, queued.block(Duration.ofSeconds(1)));
+        assertEquals(0, beerClient.getQueued());
+    }
+
+    @Test
+    void shedsCallsOverTheLimit() {
+        settings.setPolicy(SHED);
+        when(delegate.getBeerById(any())).thenReturn(Mono.never());
+        AdaptiveConcurrencyBeerClient beerClient = new AdaptiveConcurrencyBeerClient(delegate, settings);
+
+        beerClient.getBeerById(UUID.randomUUID()).subscribe();
+        beerClient.getBeerById(UUID.randomUUID()).subscribe();
+
+        assertThrows(ConcurrencyLimitExceededException.class, () -> beerClient.getBeerById(UUID.randomUUID()).block());
+    }
+
+    @Test
+    void serverErrorsShrinkTheLimit() {
+        settings.setInitialLimit(20);
+        when(delegate.getBeerById(any())).thenReturn(Mono.error(WebClientResponseException.create(503,
+                "Service Unavailable", HttpHeaders.EMPTY, new byte[0], null)));
+        AdaptiveConcurrencyBeerClient beerClient = new AdaptiveConcurrencyBeerClient(delegate, settings);
+
+        for (int i = 0; i < 10; i++) {
+            beerClient.getBeerById(UUID.randomUUID()).onErrorResume(e -> Mono.empty()).block();
+        }
+
+        assertTrue(beerClient.getLimit() < 10);
+        assertEquals(0, beerClient.getInFlight());
+    }
+
+    @Test
+    void slowCallsInFlightTogetherShrinkTheLimitOnce() throws InterruptedException {
+        Sinks.Empty<Void> burstSlowed = Sinks.empty();
+        Sinks.Empty<Void> laterSlowed = Sinks.empty();
+        Mono<BeerDto> burstCall = Mono.just(kingFisher).delayUntil(beer -> burstSlowed.asMono());
+        when(delegate.getBeerById(any())).thenReturn(Mono.just(kingFisher), burstCall, burstCall, burstCall, burstCall,
+                burstCall, burstCall, burstCall, burstCall, burstCall, burstCall,
+                Mono.just(kingFisher).delayUntil(beer -> laterSlowed.asMono()));
+        settings.setInitialLimit(20);
+        AdaptiveConcurrencyBeerClient beerClient = new AdaptiveConcurrencyBeerClient(delegate, settings);
+        beerClient.getBeerById(UUID.randomUUID()).block();
+
+        Mono<List<BeerDto>> burst = Flux.range(0, 10).flatMap(i -> beerClient.getBeerById(UUID.randomUUID()))
+                .collectList().cache();
+        burst.subscribe();
+        Thread.sleep(100);
+        burstSlowed.tryEmitEmpty();
+        assertEquals(10, burst.block(Duration.ofSeconds(1)).size());
+        assertEquals(18, beerClient.getLimit());
+
+        Mono<BeerDto> later = beerClient.getBeerById(UUID.randomUUID()).cache();
+        later.subscribe();
+        Thread.sleep(100);
+        laterSlowed.tryEmitEmpty();
+        later.block(Duration.ofSeconds(1));
+        assertEquals(16, beerClient.getLimit());
+    }
+}
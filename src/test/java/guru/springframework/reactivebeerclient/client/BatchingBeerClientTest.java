@@ -0,0 +1,134 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.SAISON;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchingBeerClientTest {
+
+    private final BeerDto kingFisher = beer("KingFisher");
+    private final BeerDto galaxyCat = beer("Galaxy Cat");
+    private final List<List<UUID>> bulkCalls = new CopyOnWriteArrayList<>();
+
+    private BatchingBeerClient beerClient;
+
+    @AfterEach
+    void tearDown() {
+        beerClient.dispose();
+    }
+
+    @Test
+    void concurrentLookupsShareOneBulkCall() {
+        beerClient = new BatchingBeerClient(mock(BeerClient.class), Duration.ofMillis(50), 10, 2, this::bulkLookup);
+        UUID unknown = UUID.randomUUID();
+
+        List<BeerDto> found = Flux.merge(beerClient.getBeerById(kingFisher.getId()), beerClient.getBeerById(galaxyCat.getId()),
+                beerClient.getBeerById(kingFisher.getId()), beerClient.getBeerById(unknown)
+                        .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()))
+                .collectList().block(Duration.ofSeconds(1));
+
+        assertEquals(3, found.size());
+        assertTrue(found.containsAll(List.of(kingFisher, galaxyCat)));
+        assertEquals(List.of(List.of(kingFisher.getId(), galaxyCat.getId(), unknown)), bulkCalls);
+    }
+
+    @Test
+    void fullBatchesAreSentWithoutWaitingForTheWindow() {
+        beerClient = new BatchingBeerClient(mock(BeerClient.class), Duration.ofSeconds(10), 2, 2, this::bulkLookup);
+
+        List<BeerDto> found = Flux.merge(beerClient.getBeerById(kingFisher.getId()), beerClient.getBeerById(galaxyCat.getId()))
+                .collectList().block(Duration.ofSeconds(1));
+
+        assertEquals(2, found.size());
+        assertEquals(1, bulkCalls.size());
+    }
+
+    @Test
+    void bulkFailuresReachEveryCaller() {
+        beerClient = new BatchingBeerClient(mock(BeerClient.class), Duration.ofMillis(10), 10, 2,
+                ids -> Flux.error(new IllegalStateException("boom")));
+
+        assertThrows(IllegalStateException.class, () -> beerClient.getBeerById(kingFisher.getId()).block(Duration.ofSeconds(1)));
+        assertThrows(IllegalStateException.class, () -> beerClient.getBeerById(galaxyCat.getId()).block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void idsMissingFromTheBulkResponseAreNotFound() {
+        beerClient = new BatchingBeerClient(mock(BeerClient.class), Duration.ofMillis(10), 10, 2, this::bulkLookup);
+
+        assertThrows(WebClientResponseException.NotFound.class,
+                () -> beerClient.getBeerById(UUID.randomUUID()).block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void batchesClosedWhileOthersAreInFlightWaitForTheirTurn() {
+        Sinks.Empty<Void> release = Sinks.empty();
+        beerClient = new BatchingBeerClient(mock(BeerClient.class), Duration.ofMillis(5), 10, 1,
+                ids -> bulkLookup(ids).delaySubscription(release.asMono()));
+
+        List<BeerDto> found = Flux.interval(Duration.ofMillis(2)).take(20)
+                .flatMap(i -> beerClient.getBeerById(kingFisher.getId()))
+                .doOnSubscribe(subscription -> Mono.delay(Duration.ofMillis(100)).subscribe(tick -> release.tryEmitEmpty()))
+                .collectList().block(Duration.ofSeconds(5));
+
+        assertEquals(Collections.nCopies(20, kingFisher), found);
+        assertTrue(bulkCalls.size() > 1, bulkCalls::toString);
+    }
+
+    @Test
+    void lookupsFailOnceDisposed() {
+        beerClient = new BatchingBeerClient(mock(BeerClient.class), Duration.ofSeconds(10), 10, 2, this::bulkLookup);
+        CompletableFuture<BeerDto> waiting = beerClient.getBeerById(kingFisher.getId()).toFuture();
+
+        beerClient.dispose();
+
+        CompletionException stranded = assertThrows(CompletionException.class, waiting::join);
+        assertTrue(stranded.getCause() instanceof IllegalStateException);
+        assertThrows(IllegalStateException.class, () -> beerClient.getBeerById(kingFisher.getId()).block(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void lookupsThroughTheDelegateFailOneByOne() {
+        BeerClient delegate = mock(BeerClient.class);
+        UUID unknown = UUID.randomUUID();
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.just(kingFisher));
+        when(delegate.getBeerById(galaxyCat.getId())).thenReturn(Mono.error(new IllegalStateException("boom")));
+        when(delegate.getBeerById(unknown)).thenReturn(Mono.empty());
+        beerClient = new BatchingBeerClient(delegate, Duration.ofMillis(50), 10, 2);
+
+        CompletableFuture<BeerDto> found = beerClient.getBeerById(kingFisher.getId()).toFuture();
+        CompletableFuture<BeerDto> failed = beerClient.getBeerById(galaxyCat.getId()).toFuture();
+        CompletableFuture<BeerDto> missing = beerClient.getBeerById(unknown).toFuture();
+
+        assertEquals(kingFisher, found.join());
+        assertTrue(assertThrows(CompletionException.class, failed::join).getCause() instanceof IllegalStateException);
+        assertTrue(assertThrows(CompletionException.class, missing::join).getCause() instanceof WebClientResponseException.NotFound);
+    }
+
+    private Flux<BeerDto> bulkLookup(List<UUID> ids) {
+        bulkCalls.add(new ArrayList<>(ids));
+        return Flux.fromIterable(List.of(kingFisher, galaxyCat)).filter(beer -> ids.contains(beer.getId()));
+    }
+
+    private static BeerDto beer(String name) {
+        return BeerDto.builder().id(UUID.randomUUID()).beerName(name).beerStyle(SAISON.name()).build();
+    }
+}
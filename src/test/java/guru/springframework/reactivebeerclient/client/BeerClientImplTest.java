@@ -1,9 +1,11 @@
 package guru.springframework.reactivebeerclient.client;
 
 import guru.springframework.reactivebeerclient.config.WebClientConfig;
+import guru.springframework.reactivebeerclient.config.WebClientConfigProperties;
 import guru.springframework.reactivebeerclient.model.BeerDto;
 import guru.springframework.reactivebeerclient.model.BeerPagedList;
 import guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,11 +24,19 @@ import static org.springframework.http.HttpStatus.*;
 
 class BeerClientImplTest {
 
+    private WebClientConfig webClientConfig;
     private BeerClient beerClient;
 
     @BeforeEach
     void setUp() {
-        this.beerClient = new BeerClientImpl(new WebClientConfig().getWebClient());
+        WebClientConfigProperties properties = new WebClientConfigProperties();
+        this.webClientConfig = new WebClientConfig(properties);
+        this.beerClient = new BeerClientImpl(webClientConfig.getWebClient(), properties.getBaseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        webClientConfig.dispose();
     }
 
     @Test
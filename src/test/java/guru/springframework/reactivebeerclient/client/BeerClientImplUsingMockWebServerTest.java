@@ -4,20 +4,41 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import guru.springframework.reactivebeerclient.model.BeerDto;
 import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import guru.springframework.reactivebeerclient.model.BulkResult;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import okhttp3.mockwebserver.Dispatcher;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.BEER_V2_URL_BY_BEERID;
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.ALE;
 import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.SAISON;
 import static java.util.Objects.nonNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -27,8 +48,11 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 public class BeerClientImplUsingMockWebServerTest {
 
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     private final MockWebServer mockWebServer = new MockWebServer();
-    private final BeerClient beerClient = new BeerClientImpl(WebClient.create(mockWebServer.url("/").toString()));
+    private final String baseUrl = mockWebServer.url("/").toString();
+    private final BeerClient beerClient = new BeerClientImpl(WebClient.create(baseUrl), baseUrl);
 
     @AfterEach
     void tearDown() throws IOException {
@@ -62,6 +86,47 @@ public class BeerClientImplUsingMockWebServerTest {
         Assertions.assertTrue(beerPagedList.stream().count() > 0);
     }
 
+    @Test
+    void listBeersStreaming() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value()).setHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                .setChunkedBody(getAllBearsResponse(), 64));
+        List<BeerDto> beers = this.beerClient.listBeersStreaming(null, null, null, null, null).collectList().block();
+        Assertions.assertNotNull(beers);
+        assertEquals(25, beers.size());
+        assertEquals(UUID.fromString("b0edcc5c-9b47-4b30-b911-8e11df318251"), beers.get(0).getId());
+        assertEquals(new BigDecimal("86.36"), beers.get(0).getPrice());
+        assertEquals("Spocktoberfest", beers.get(24).getBeerName());
+    }
+
+    @Test
+    void listCompactBeers() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value()).setHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                .setChunkedBody(getAllBearsResponse(), 64));
+        List<CompactBeerDto> beers = this.beerClient.listCompactBeers(null, null, null, null, null).collectList().block();
+        Assertions.assertNotNull(beers);
+        assertEquals(25, beers.size());
+        CompactBeerDto mangoBobs = beers.get(0);
+        assertEquals(UUID.fromString("b0edcc5c-9b47-4b30-b911-8e11df318251"), mangoBobs.getId());
+        assertEquals(ALE, mangoBobs.getBeerStyle());
+        assertEquals(8636, mangoBobs.getPriceCents());
+        assertEquals(3884, mangoBobs.getQuantityOnHand());
+        assertEquals(Instant.parse("2021-05-17T07:13:27.18Z").toEpochMilli(), mangoBobs.getCreatedEpochMillis());
+        assertEquals(CompactBeerDto.NO_TIMESTAMP, mangoBobs.getLastUpdatedEpochMillis());
+        assertEquals(new BigDecimal("86.36"), mangoBobs.toBeerDto().getPrice());
+        assertEquals("Spocktoberfest", beers.get(24).getBeerName());
+    }
+
+    @Test
+    void listBeersStreamingDecodesWithTheGivenObjectMapper() {
+        BeerClient strictClient = new BeerClientImpl(WebClient.create(baseUrl), new BeerUriTemplates(baseUrl),
+                ConditionalRequestCache.disabled(), Jackson2ObjectMapperBuilder.json().failOnUnknownProperties(true).build());
+        mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value()).setHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                .setBody("{\"content\": [{\"beerName\": \"Mango Bobs\", \"brewery\": \"Cigar City\"}]}"));
+
+        Assertions.assertThrows(DecodingException.class,
+                () -> strictClient.listBeersStreaming(null, null, null, null, null).blockLast());
+    }
+
     @Test
     void createBeer() {
         BeerDto kingFisher = BeerDto.builder().beerName("KingFisher")
@@ -137,6 +202,244 @@ public class BeerClientImplUsingMockWebServerTest {
         assertEquals(responseEntity.getStatusCode(), NO_CONTENT);
     }
 
+    @Test
+    void streamAllBeers() {
+        List<BeerDto> catalog = IntStream.range(0, 5).mapToObj(i -> BeerDto.builder().id(UUID.randomUUID())
+                .beerName("Beer " + i).beerStyle(SAISON.name()).upc(String.valueOf(i)).build())
+                .collect(Collectors.toList());
+        mockWebServer.setDispatcher(pagedDispatcher(2, page -> catalog));
+
+        List<BeerDto> beers = this.beerClient.streamAllBeers(2, null, null, null, 2).collectList().block();
+        Assertions.assertNotNull(beers);
+        assertEquals(catalog.stream().map(BeerDto::getId).collect(Collectors.toList()),
+                beers.stream().map(BeerDto::getId).collect(Collectors.toList()));
+        assertEquals(3, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void streamAllBeersFetchesOnlyThePagesTheSubscriberAskedFor() {
+        List<BeerDto> catalog = IntStream.range(0, 20).mapToObj(i -> BeerDto.builder().id(UUID.randomUUID())
+                .beerName("Beer " + i).beerStyle(SAISON.name()).upc(String.valueOf(i)).build())
+                .collect(Collectors.toList());
+        mockWebServer.setDispatcher(pagedDispatcher(2, page -> catalog));
+
+        List<BeerDto> beers = this.beerClient.streamAllBeers(2, null, null, null, 1).take(3).collectList().block();
+        Assertions.assertNotNull(beers);
+        assertEquals(catalog.subList(0, 3).stream().map(BeerDto::getId).collect(Collectors.toList()),
+                beers.stream().map(BeerDto::getId).collect(Collectors.toList()));
+        // Three beers span the first two of ten pages; with a prefetch of one no later page is requested.
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void streamAllBeersInParallelSkipsShiftedBeersAndFetchesAddedPages() {
+        List<BeerDto> catalog = IntStream.range(0, 5).mapToObj(i -> BeerDto.builder().id(UUID.randomUUID())
+                .beerName("Beer " + i).beerStyle(SAISON.name()).upc(String.valueOf(i)).build())
+                .collect(Collectors.toList());
+        List<BeerDto> grown = new ArrayList<>(catalog);
+        grown.add(0, BeerDto.builder().id(UUID.randomUUID()).beerName("New").beerStyle(SAISON.name()).build());
+        grown.add(0, BeerDto.builder().id(UUID.randomUUID()).beerName("Newer").beerStyle(SAISON.name()).build());
+        mockWebServer.setDispatcher(pagedDispatcher(2, page -> page == 0 ? catalog : grown));
+
+        List<BeerDto> beers = this.beerClient.streamAllBeersInParallel(2, null, null, null, 4, true).collectList().block();
+        Assertions.assertNotNull(beers);
+        assertEquals(catalog.stream().map(BeerDto::getId).collect(Collectors.toList()),
+                beers.stream().map(BeerDto::getId).collect(Collectors.toList()));
+        assertEquals(4, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void streamAllBeersInParallelRereadsOnlyThePageBeersSlidBackOnto() {
+        List<BeerDto> catalog = IntStream.range(0, 5).mapToObj(i -> BeerDto.builder().id(UUID.randomUUID())
+                .beerName("Beer " + i).beerStyle(SAISON.name()).upc(String.valueOf(i)).build())
+                .collect(Collectors.toList());
+        List<BeerDto> shrunk = catalog.subList(1, catalog.size());
+        AtomicInteger requests = new AtomicInteger();
+        mockWebServer.setDispatcher(pagedDispatcher(2, page -> requests.getAndIncrement() == 0 ? catalog : shrunk));
+
+        List<BeerDto> beers = this.beerClient.streamAllBeersInParallel(2, null, null, null, 1, true)
+                .collectList().block();
+        Assertions.assertNotNull(beers);
+        assertEquals(catalog.stream().map(BeerDto::getId).collect(Collectors.toList()),
+                beers.stream().map(BeerDto::getId).collect(Collectors.toList()));
+        assertEquals(4, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void getBeersByIdsCoalescesInFlightLookups() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String path = request.getRequestUrl().encodedPath();
+                UUID id = UUID.fromString(path.substring(path.lastIndexOf('/') + 1));
+                return json(BeerDto.builder().id(id).beerName("KingFisher").beerStyle(SAISON.name()).build())
+                        .setBodyDelay(200, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        List<BeerDto> beers = this.beerClient.getBeersByIds(Flux.just(first, second, first, second), 4, true)
+                .collectList().block();
+        Assertions.assertNotNull(beers);
+        assertEquals(List.of(first, second, first, second), beers.stream().map(BeerDto::getId).collect(Collectors.toList()));
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void createBeersReportsEachItem() {
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return request.getBody().readUtf8().contains("Flat")
+                        ? new MockResponse().setResponseCode(BAD_REQUEST.value())
+                        : new MockResponse().setResponseCode(CREATED.value())
+                        .setHeader("Location", "/api/v1/beer/" + UUID.randomUUID());
+            }
+        });
+        Flux<BeerDto> beers = Flux.just("KingFisher", "Flat", "Radda").map(name -> BeerDto.builder().beerName(name)
+                .beerStyle(SAISON.name()).build());
+
+        List<BulkResult> results = this.beerClient.createBeers(beers, 2, 0).collectList().block();
+        Assertions.assertNotNull(results);
+        assertEquals(3, results.size());
+        assertEquals(2, results.stream().filter(BulkResult::isSuccess)
+                .filter(result -> result.getLocation() != null).count());
+        BulkResult failure = results.stream().filter(result -> !result.isSuccess()).findFirst().orElseThrow();
+        assertEquals("Flat", failure.getBeer().getBeerName());
+        assertEquals(BAD_REQUEST.value(), failure.getStatusCode());
+    }
+
+    @Test
+    void bulkCallsWithTheSameRateShareOneLimit() {
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(CREATED.value());
+            }
+        });
+        Flux<BeerDto> beers = Flux.range(0, 3).map(i -> BeerDto.builder().beerName("Beer " + i)
+                .beerStyle(SAISON.name()).build());
+        VirtualTimeScheduler virtualTime = VirtualTimeScheduler.getOrSet();
+        try {
+            List<BulkResult> results = new CopyOnWriteArrayList<>();
+            Flux.merge(this.beerClient.createBeers(beers, 3, 2), this.beerClient.createBeers(beers, 3, 2))
+                    .subscribe(results::add);
+
+            // Both calls draw from one bucket of two permits; the other four requests wait for later periods.
+            await(() -> results.size() == 2);
+            assertEquals(2, mockWebServer.getRequestCount());
+
+            virtualTime.advanceTimeBy(Duration.ofSeconds(3));
+            await(() -> results.size() == 6);
+            assertEquals(6, results.stream().filter(BulkResult::isSuccess).count());
+            assertEquals(6, mockWebServer.getRequestCount());
+        } finally {
+            VirtualTimeScheduler.reset();
+        }
+    }
+
+    @Test
+    void updateBeersReportsABeerWithoutAnIdAsAFailedItem() {
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(NO_CONTENT.value());
+            }
+        });
+        Flux<BeerDto> beers = Flux.just(
+                BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher").beerStyle(SAISON.name()).build(),
+                BeerDto.builder().beerName("Anonymous").beerStyle(SAISON.name()).build(),
+                BeerDto.builder().id(UUID.randomUUID()).beerName("Radda").beerStyle(SAISON.name()).build());
+
+        List<BulkResult> results = this.beerClient.updateBeers(beers, 3, 0).collectList().block();
+
+        Assertions.assertNotNull(results);
+        assertEquals(3, results.size());
+        assertEquals(2, results.stream().filter(BulkResult::isSuccess).count());
+        BulkResult failure = results.stream().filter(result -> !result.isSuccess()).findFirst().orElseThrow();
+        assertEquals("Anonymous", failure.getBeer().getBeerName());
+        Assertions.assertNotNull(failure.getError());
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void getBeerByIdRevalidatesWithETag() throws InterruptedException {
+        BeerClient revalidatingClient = new BeerClientImpl(WebClient.create(baseUrl),
+                new BeerUriTemplates(baseUrl), new ConditionalRequestCache(100));
+        BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+                .beerStyle(SAISON.name()).upc("354354879832").build();
+        mockWebServer.enqueue(json(kingFisher).setHeader("ETag", "\"v1\""));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(NOT_MODIFIED.value()).setHeader("ETag", "\"v1\""));
+
+        BeerDto first = revalidatingClient.getBeerById(kingFisher.getId()).block();
+        BeerDto second = revalidatingClient.getBeerById(kingFisher.getId()).block();
+
+        Assertions.assertNotNull(first);
+        assertEquals(first, second);
+        Assertions.assertNotSame(first, second);
+        Assertions.assertNull(mockWebServer.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v1\"", mockWebServer.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    void catalogWalksBypassTheConditionalRequestCache() throws InterruptedException {
+        BeerClient revalidatingClient = new BeerClientImpl(WebClient.create(baseUrl),
+                new BeerUriTemplates(baseUrl), new ConditionalRequestCache(100));
+        List<BeerDto> catalog = IntStream.range(0, 3).mapToObj(i -> BeerDto.builder().id(UUID.randomUUID())
+                .beerName("Beer " + i).beerStyle(SAISON.name()).build()).collect(Collectors.toList());
+        Dispatcher pages = pagedDispatcher(2, page -> catalog);
+        mockWebServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                return pages.dispatch(request).setHeader("ETag", "\"v1\"");
+            }
+        });
+
+        revalidatingClient.streamAllBeers(2, null, null, null, 2).blockLast();
+        revalidatingClient.streamAllBeers(2, null, null, null, 2).blockLast();
+
+        assertEquals(4, mockWebServer.getRequestCount());
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertNull(mockWebServer.takeRequest().getHeader("If-None-Match"));
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "Timed out waiting for the condition");
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Serves {@code pageNumber} queries from the catalog returned for that page, {@code pageSize} beers at a time,
+     * so tests can change the catalog between pages.
+     */
+    private static Dispatcher pagedDispatcher(int pageSize, IntFunction<List<BeerDto>> catalogAtPage) {
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String pageNumber = request.getRequestUrl().queryParameter("pageNumber");
+                int page = pageNumber == null ? 0 : Integer.parseInt(pageNumber);
+                List<BeerDto> catalog = catalogAtPage.apply(page);
+                List<BeerDto> content = catalog.subList(Math.min(page * pageSize, catalog.size()),
+                        Math.min(page * pageSize + pageSize, catalog.size()));
+                return json(new BeerPagedList(content, PageRequest.of(page, pageSize), catalog.size()));
+            }
+        };
+    }
+
+    private static MockResponse json(Object body) {
+        try {
+            return new MockResponse().setResponseCode(OK.value()).setHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                    .setBody(OBJECT_MAPPER.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            return new MockResponse().setResponseCode(INTERNAL_SERVER_ERROR.value());
+        }
+    }
+
     private String getAllBearsResponse() {
         return "{\n" +
                 "    \"content\": [\n" +
@@ -0,0 +1,57 @@
+package guru.springframework.reactivebeerclient.client;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.net.URI;
+import java.util.UUID;
+
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.BEER_V2_URL_BY_BEERID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BeerUriTemplatesTest {
+
+    private final BeerUriTemplates uriTemplates = new BeerUriTemplates("http://localhost:8080/");
+
+    @Test
+    void beerById() {
+        UUID id = UUID.randomUUID();
+
+        assertEquals(new DefaultUriBuilderFactory("http://localhost:8080").expand(BEER_V2_URL_BY_BEERID, id),
+                uriTemplates.beerById(id));
+    }
+
+    @Test
+    void resolvesAgainstABaseUrlWithOrWithoutTrailingSlash() {
+        assertEquals(URI.create("http://localhost:8080/api/v1/beer"), new BeerUriTemplates("http://localhost:8080").beers());
+        assertEquals(URI.create("http://localhost:8080/api/v1/beer"), uriTemplates.beers());
+    }
+
+    @Test
+    void rejectsAMissingId() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> uriTemplates.beerById(null));
+
+        assertEquals("Beer id must not be null", e.getMessage());
+    }
+
+    @Test
+    void beerByUpcIsEncoded() {
+        assertEquals(URI.create("http://localhost:8080/api/v1/beerUpc/0631%2F234"), uriTemplates.beerByUpc("0631/234"));
+    }
+
+    @Test
+    void listBeersSkipsAbsentParameters() {
+        assertEquals(URI.create("http://localhost:8080/api/v1/beer"), uriTemplates.listBeers(null, null, null, null, null));
+        assertEquals(URI.create("http://localhost:8080/api/v1/beer?pageSize=25&beerStyle=PALE_ALE&showInventoryOnhand=true"),
+                uriTemplates.listBeers(null, 25, null, "PALE_ALE", true));
+    }
+
+    @Test
+    void listBeersEncodesValues() {
+        URI uri = uriTemplates.listBeers(2, 10, "Mango Bobs & Co+ Brüt", null, null);
+
+        assertEquals("pageNumber=2&pageSize=10&beerName=Mango%20Bobs%20%26%20Co%2B%20Br%C3%BCt", uri.getRawQuery());
+        assertEquals("pageNumber=2&pageSize=10&beerName=Mango Bobs & Co+ Brüt", uri.getQuery());
+    }
+}
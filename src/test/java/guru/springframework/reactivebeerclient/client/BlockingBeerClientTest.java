@@ -0,0 +1,72 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.SAISON;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BlockingBeerClientTest {
+
+    private final BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+            .beerStyle(SAISON.name()).upc("354354879832").build();
+
+    private BeerClient delegate;
+    private BlockingBeerClient beerClient;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(BeerClient.class);
+        beerClient = new BlockingBeerClient(delegate, 4, Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerClient.close();
+    }
+
+    @Test
+    void returnsTheResult() throws Exception {
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.just(kingFisher));
+
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()));
+        assertEquals(kingFisher, beerClient.submit(client -> client.getBeerById(kingFisher.getId())).get());
+    }
+
+    @Test
+    void timeoutCancelsTheExchange() {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.<BeerDto>never().doOnCancel(() -> cancelled.set(true)));
+
+        assertThrows(IllegalStateException.class,
+                () -> beerClient.withTimeout(Duration.ofMillis(50)).getBeerById(kingFisher.getId()));
+        assertTrue(cancelled.get());
+    }
+
+    @Test
+    void rethrowsErrorsOfTheExchange() {
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.error(WebClientResponseException.create(404,
+                "Not Found", null, null, null)));
+
+        assertThrows(WebClientResponseException.NotFound.class, () -> beerClient.getBeerById(kingFisher.getId()));
+    }
+
+    @Test
+    void refusesToBlockNonBlockingThreads() {
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.just(kingFisher));
+
+        assertThrows(IllegalStateException.class, () -> Mono.fromCallable(() -> beerClient.getBeerById(kingFisher.getId()))
+                .subscribeOn(Schedulers.parallel()).block());
+    }
+}
@@ -0,0 +1,202 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.SAISON;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CachingBeerClientTest {
+
+    private final BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+            .beerStyle(SAISON.name()).upc("354354879832").build();
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private BeerClient delegate;
+    private CachingBeerClient beerClient;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(BeerClient.class);
+        beerClient = new CachingBeerClient(delegate, 100, Duration.ofMinutes(5));
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.just(kingFisher));
+        when(delegate.getBeerByUPC(kingFisher.getUpc())).thenReturn(Mono.just(kingFisher));
+    }
+
+    @Test
+    void repeatedLookupsHitTheCache() {
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()).block());
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()).block());
+
+        verify(delegate, times(1)).getBeerById(kingFisher.getId());
+        assertEquals(1, beerClient.beersByIdStats().hitCount());
+        assertEquals(1, beerClient.beersByIdStats().missCount());
+    }
+
+    @Test
+    void lookupByIdPopulatesUpcIndex() {
+        beerClient.getBeerById(kingFisher.getId()).block();
+
+        assertEquals(kingFisher, beerClient.getBeerByUPC(kingFisher.getUpc()).block());
+        verify(delegate, never()).getBeerByUPC(any());
+    }
+
+    @Test
+    void updateInvalidatesBothIndexes() {
+        when(delegate.updateBeer(any(), any())).thenReturn(Mono.just(ResponseEntity.noContent().build()));
+        beerClient.getBeerById(kingFisher.getId()).block();
+
+        beerClient.updateBeer(kingFisher.getId(), kingFisher).block();
+        beerClient.getBeerByUPC(kingFisher.getUpc()).block();
+        verify(delegate, times(1)).getBeerByUPC(kingFisher.getUpc());
+
+        beerClient.getBeerById(kingFisher.getId()).block();
+        verify(delegate, times(1)).getBeerById(kingFisher.getId());
+    }
+
+    @Test
+    void deleteInvalidatesCachedBeer() {
+        when(delegate.deleteBeerById(any())).thenReturn(Mono.just(ResponseEntity.noContent().build()));
+        beerClient.getBeerById(kingFisher.getId()).block();
+
+        beerClient.deleteBeerById(kingFisher.getId()).block();
+        beerClient.getBeerById(kingFisher.getId()).block();
+
+        verify(delegate, times(2)).getBeerById(kingFisher.getId());
+    }
+
+    @Test
+    void updateInvalidatesBeforeItsResultIsEmitted() {
+        when(delegate.updateBeer(any(), any())).thenReturn(Mono.just(ResponseEntity.noContent().build()));
+        beerClient.getBeerById(kingFisher.getId()).block();
+
+        beerClient.updateBeer(kingFisher.getId(), kingFisher)
+                .doOnNext(response -> beerClient.getBeerById(kingFisher.getId()).block())
+                .block();
+
+        verify(delegate, times(2)).getBeerById(kingFisher.getId());
+    }
+
+    @Test
+    void deleteInvalidatesWhenItFails() {
+        when(delegate.deleteBeerById(any())).thenReturn(Mono.error(WebClientResponseException.create(503,
+                "Service Unavailable", HttpHeaders.EMPTY, new byte[0], null)));
+        beerClient.getBeerById(kingFisher.getId()).block();
+
+        assertThrows(WebClientResponseException.class, () -> beerClient.deleteBeerById(kingFisher.getId()).block());
+        beerClient.getBeerById(kingFisher.getId()).block();
+
+        verify(delegate, times(2)).getBeerById(kingFisher.getId());
+    }
+
+    @Test
+    void emptyLookupsArePassedThroughUncached() {
+        beerClient = new CachingBeerClient(delegate, 100, Duration.ofMinutes(5), null, Duration.ofMinutes(1));
+        when(delegate.getBeerByUPC("000000000000")).thenReturn(Mono.empty());
+
+        assertNull(beerClient.getBeerByUPC("000000000000").block());
+        assertNull(beerClient.getBeerByUPC("000000000000").block());
+
+        verify(delegate, times(2)).getBeerByUPC("000000000000");
+        assertEquals(0, beerClient.beersByUpcStats().hitCount());
+    }
+
+    @Test
+    void notFoundIsCachedUntilABeerIsCreatedWithThatUpc() {
+        beerClient = new CachingBeerClient(delegate, 100, Duration.ofMinutes(5), null, Duration.ofMinutes(1));
+        when(delegate.getBeerByUPC("000000000000")).thenReturn(Mono.error(WebClientResponseException.create(404,
+                "Not Found", HttpHeaders.EMPTY, new byte[0], null)));
+        when(delegate.createBeer(any())).thenReturn(Mono.just(ResponseEntity.noContent().build()));
+
+        assertThrows(WebClientResponseException.NotFound.class, () -> beerClient.getBeerByUPC("000000000000").block());
+        assertThrows(WebClientResponseException.NotFound.class, () -> beerClient.getBeerByUPC("000000000000").block());
+        verify(delegate, times(1)).getBeerByUPC("000000000000");
+
+        beerClient.createBeer(BeerDto.builder().beerName("New").upc("000000000000").build()).block();
+        assertThrows(WebClientResponseException.NotFound.class, () -> beerClient.getBeerByUPC("000000000000").block());
+        verify(delegate, times(2)).getBeerByUPC("000000000000");
+    }
+
+    @Test
+    void notFoundIsNotCachedByDefault() {
+        when(delegate.getBeerByUPC("000000000000")).thenReturn(Mono.error(WebClientResponseException.create(404,
+                "Not Found", HttpHeaders.EMPTY, new byte[0], null)));
+
+        assertThrows(WebClientResponseException.NotFound.class, () -> beerClient.getBeerByUPC("000000000000").block());
+        assertThrows(WebClientResponseException.NotFound.class, () -> beerClient.getBeerByUPC("000000000000").block());
+
+        verify(delegate, times(2)).getBeerByUPC("000000000000");
+    }
+
+    @Test
+    void notFoundIsReplayedWithTheOriginalResponse() {
+        beerClient = new CachingBeerClient(delegate, 100, Duration.ofMinutes(5), null, Duration.ofMinutes(1));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Request-Id", "42");
+        when(delegate.getBeerByUPC("000000000000")).thenReturn(Mono.error(WebClientResponseException.create(404,
+                "No Such Beer", headers, "{\"upc\":\"000000000000\"}".getBytes(UTF_8), UTF_8)));
+
+        beerClient.getBeerByUPC("000000000000").onErrorResume(e -> Mono.empty()).block();
+        WebClientResponseException.NotFound replayed = assertThrows(WebClientResponseException.NotFound.class,
+                () -> beerClient.getBeerByUPC("000000000000").block());
+
+        verify(delegate, times(1)).getBeerByUPC("000000000000");
+        assertEquals("No Such Beer", replayed.getStatusText());
+        assertEquals("42", replayed.getHeaders().getFirst("X-Request-Id"));
+        assertEquals("{\"upc\":\"000000000000\"}", replayed.getResponseBodyAsString());
+    }
+
+    @Test
+    void notFoundExpiresAfterItsOwnTimeToLive() {
+        beerClient = new CachingBeerClient(delegate, 100, Duration.ofMinutes(5), null, Duration.ofMinutes(1), ticker::get);
+        when(delegate.getBeerByUPC("000000000000")).thenReturn(Mono.error(WebClientResponseException.create(404,
+                "Not Found", HttpHeaders.EMPTY, new byte[0], null)));
+
+        beerClient.getBeerByUPC("000000000000").onErrorResume(e -> Mono.empty()).block();
+        beerClient.getBeerById(kingFisher.getId()).block();
+        ticker.addAndGet(Duration.ofMinutes(2).toNanos());
+        beerClient.getBeerByUPC("000000000000").onErrorResume(e -> Mono.empty()).block();
+        beerClient.getBeerById(kingFisher.getId()).block();
+
+        verify(delegate, times(2)).getBeerByUPC("000000000000");
+        verify(delegate, times(1)).getBeerById(kingFisher.getId());
+    }
+
+    @Test
+    void staleBeerIsServedWhileRefreshing() {
+        BeerDto restocked = BeerDto.builder().id(kingFisher.getId()).beerName("KingFisher")
+                .beerStyle(SAISON.name()).upc(kingFisher.getUpc()).quantityOnHand(42).build();
+        beerClient = new CachingBeerClient(delegate, 100, Duration.ofMinutes(5), Duration.ofMinutes(1), Duration.ZERO,
+                ticker::get);
+        Sinks.One<BeerDto> reload = Sinks.one();
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.just(kingFisher), reload.asMono());
+
+        beerClient.getBeerById(kingFisher.getId()).block();
+        ticker.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()).block());
+        verify(delegate, times(2)).getBeerById(kingFisher.getId());
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()).block());
+
+        reload.tryEmitValue(restocked);
+        assertEquals(restocked, beerClient.getBeerById(kingFisher.getId()).block());
+    }
+}
@@ -0,0 +1,51 @@
+package guru.springframework.reactivebeerclient.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyWindowTest {
+
+    @Test
+    void hasNoPercentileUntilTheMinimumIsRecorded() {
+        LatencyWindow window = new LatencyWindow(512, 0.5, Duration.ZERO, 4);
+
+        record(window, 10, 20, 30);
+
+        assertEquals(Optional.empty(), window.percentile());
+    }
+
+    @Test
+    void takesThePercentileOverTheLatenciesSeenSoFar() {
+        LatencyWindow window = new LatencyWindow(512, 0.5, Duration.ZERO, 4);
+
+        record(window, 40, 10, 30, 20);
+
+        assertEquals(Optional.of(Duration.ofMillis(30)), window.percentile());
+    }
+
+    @Test
+    void neverGoesBelowTheFloor() {
+        LatencyWindow window = new LatencyWindow(512, 0.5, Duration.ofMillis(50), 4);
+
+        record(window, 40, 10, 30, 20);
+
+        assertEquals(Optional.of(Duration.ofMillis(50)), window.percentile());
+    }
+
+    @Test
+    void usesTheFloorFromTheStartWithoutAMinimum() {
+        LatencyWindow window = new LatencyWindow(512, 0.5, Duration.ofMillis(50), 0);
+
+        assertEquals(Optional.of(Duration.ofMillis(50)), window.percentile());
+    }
+
+    private static void record(LatencyWindow window, long... millis) {
+        for (long latency : millis) {
+            window.record(Duration.ofMillis(latency).toNanos());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.CompactBeerDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PagedContentDecoderTest {
+
+    private static final String PAGE = "{\"content\":[" +
+            "{\"id\":\"0a818933-087d-47f2-ad83-2f986ed087eb\",\"beerName\":\"Mango Bobs\",\"beerStyle\":\"IPA\"," +
+            "\"price\":12.95,\"quantityOnHand\":12,\"createdDate\":\"2021-05-17T09:13:27+02\"}," +
+            "{\"id\":\"a712d914-61ea-4623-8bd0-32c0f6545bfd\",\"beerName\":\"Galaxy Cat\",\"beerStyle\":\"PALE_ALE\"," +
+            "\"price\":\"3.10\",\"nested\":{\"content\":[{}]}}" +
+            "],\"pageable\":{\"sort\":{\"sorted\":false},\"offset\":0},\"totalElements\":2,\"content2\":[{}]}";
+
+    private final PagedContentDecoder decoder = new PagedContentDecoder(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void decodesElementsSplitAcrossBuffers() {
+        for (int chunkSize : new int[]{1, 3, 7, PAGE.length()}) {
+            List<CompactBeerDto> beers = decoder.decode(chunks(chunkSize), CompactBeerDto.class).collectList().block();
+
+            assertEquals(2, beers.size(), "chunk size " + chunkSize);
+            assertEquals(UUID.fromString("0a818933-087d-47f2-ad83-2f986ed087eb"), beers.get(0).getId());
+            assertEquals(1295, beers.get(0).getPriceCents());
+            assertEquals("Galaxy Cat", beers.get(1).getBeerName());
+            assertEquals(310, beers.get(1).getPriceCents());
+        }
+    }
+
+    @Test
+    void keepsDecimalPrices() {
+        List<BeerDto> beers = decoder.decode(chunks(5), BeerDto.class).collectList().block();
+
+        assertEquals(new BigDecimal("12.95"), beers.get(0).getPrice());
+        assertEquals(new BigDecimal("3.10"), beers.get(1).getPrice());
+    }
+
+    @Test
+    void keepsTheScaleOfDecimalPrices() {
+        String page = "{\"content\":[{\"beerName\":\"Mango Bobs\",\"price\":12.950}]}";
+
+        List<BeerDto> beers = decoder.decode(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(
+                page.getBytes(StandardCharsets.UTF_8))), BeerDto.class).collectList().block();
+
+        assertEquals(new BigDecimal("12.950"), beers.get(0).getPrice());
+    }
+
+    @Test
+    void refusesElementsLargerThanMaxInMemorySize() {
+        PagedContentDecoder limited = new PagedContentDecoder(Jackson2ObjectMapperBuilder.json().build(), 64);
+
+        assertThrows(DataBufferLimitException.class,
+                () -> limited.decode(chunks(16), CompactBeerDto.class).collectList().block());
+        assertThrows(DataBufferLimitException.class,
+                () -> limited.decode(chunks(PAGE.length()), CompactBeerDto.class).collectList().block());
+        assertEquals(2, new PagedContentDecoder(Jackson2ObjectMapperBuilder.json().build(), 256)
+                .decode(chunks(16), CompactBeerDto.class).collectList().block().size());
+    }
+
+    private Flux<DataBuffer> chunks(int chunkSize) {
+        byte[] bytes = PAGE.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int from = 0; from < bytes.length; from += chunkSize) {
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(
+                    Arrays.copyOfRange(bytes, from, Math.min(bytes.length, from + chunkSize))));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
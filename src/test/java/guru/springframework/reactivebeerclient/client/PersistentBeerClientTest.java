@@ -0,0 +1,120 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BulkResult;
+import guru.springframework.reactivebeerclient.store.BeerStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.UUID;
+
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.SAISON;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class PersistentBeerClientTest {
+
+    private final BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+            .beerStyle(SAISON.name()).price(new BigDecimal("240.50")).upc("354354879832").build();
+
+    @TempDir
+    Path directory;
+
+    private BeerClient delegate;
+    private BeerStore store;
+    private PersistentBeerClient beerClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        delegate = mock(BeerClient.class);
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.just(kingFisher));
+        when(delegate.getBeerByUPC(kingFisher.getUpc())).thenReturn(Mono.just(kingFisher));
+        store = BeerStore.open(directory.resolve("beers.log"));
+        beerClient = new PersistentBeerClient(delegate, store, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void lookupsAreReadThroughTheStore() {
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()).block());
+        assertTrue(store.get(kingFisher.getId()).isPresent());
+
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()).block());
+        assertEquals(kingFisher, beerClient.getBeerByUPC(kingFisher.getUpc()).block());
+
+        verify(delegate, times(1)).getBeerById(kingFisher.getId());
+        verify(delegate, never()).getBeerByUPC(any());
+    }
+
+    @Test
+    void writesRemoveTheBeerBeforeCompleting() {
+        when(delegate.updateBeer(any(), any())).thenReturn(Mono.just(ResponseEntity.noContent().build()));
+        when(delegate.deleteBeerById(any())).thenReturn(Mono.just(ResponseEntity.noContent().build()));
+        when(delegate.updateBeers(any(), anyInt(), anyInt()))
+                .thenReturn(Flux.just(BulkResult.builder().beer(kingFisher).statusCode(204).build()));
+
+        beerClient.getBeerById(kingFisher.getId()).block();
+        beerClient.updateBeer(kingFisher.getId(), kingFisher).block();
+        assertTrue(store.get(kingFisher.getId()).isEmpty());
+
+        beerClient.getBeerById(kingFisher.getId()).block();
+        beerClient.deleteBeerById(kingFisher.getId()).block();
+        assertTrue(store.get(kingFisher.getId()).isEmpty());
+
+        beerClient.getBeerById(kingFisher.getId()).block();
+        beerClient.updateBeers(Flux.just(kingFisher), 1, 0).blockLast();
+        assertTrue(store.get(kingFisher.getId()).isEmpty());
+
+        verify(delegate, times(3)).getBeerById(kingFisher.getId());
+    }
+
+    @Test
+    void failedWritesStillRemoveTheBeer() {
+        when(delegate.updateBeer(any(), any())).thenReturn(Mono.error(new IllegalStateException("timed out")));
+        beerClient.getBeerById(kingFisher.getId()).block();
+
+        assertThrows(IllegalStateException.class, () -> beerClient.updateBeer(kingFisher.getId(), kingFisher).block());
+        assertTrue(store.get(kingFisher.getId()).isEmpty());
+    }
+
+    @Test
+    void storedBeersSurviveARestart() throws IOException {
+        beerClient.getBeerById(kingFisher.getId()).block();
+        store.close();
+
+        store = BeerStore.open(directory.resolve("beers.log"));
+        BeerClient offline = mock(BeerClient.class);
+        when(offline.getBeerById(any())).thenReturn(Mono.error(new IllegalStateException("offline")));
+        PersistentBeerClient restarted = new PersistentBeerClient(offline, store, Duration.ofHours(1));
+
+        assertEquals(kingFisher, restarted.getBeerById(kingFisher.getId()).block());
+        verify(offline, never()).getBeerById(any());
+    }
+
+    @Test
+    void beersOlderThanMaxAgeAreFetchedAgain() {
+        PersistentBeerClient noReuse = new PersistentBeerClient(delegate, store, Duration.ZERO);
+
+        noReuse.getBeerById(kingFisher.getId()).block();
+        noReuse.getBeerById(kingFisher.getId()).block();
+
+        verify(delegate, times(2)).getBeerById(kingFisher.getId());
+    }
+}
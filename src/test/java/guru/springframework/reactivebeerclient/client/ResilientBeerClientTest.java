@@ -0,0 +1,191 @@
+package guru.springframework.reactivebeerclient.client;
+
+import guru.springframework.reactivebeerclient.config.WebClientConfigProperties;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.SAISON;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResilientBeerClientTest {
+
+    private final BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+            .beerStyle(SAISON.name()).upc("354354879832").build();
+
+    private final WebClientConfigProperties.Resilience settings = new WebClientConfigProperties.Resilience();
+
+    private BeerClient delegate;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(BeerClient.class);
+        settings.setRetryMinBackoff(Duration.ofMillis(1));
+        settings.setRetryMaxBackoff(Duration.ofMillis(5));
+        settings.setHedgingEnabled(false);
+    }
+
+    @Test
+    void retriesServerErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.defer(() -> attempts.incrementAndGet() < 3
+                ? Mono.error(serverError()) : Mono.just(kingFisher)));
+
+        assertEquals(kingFisher, new ResilientBeerClient(delegate, settings).getBeerById(kingFisher.getId()).block());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.getBeerByUPC("0000")).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(WebClientResponseException.create(404, "Not Found", HttpHeaders.EMPTY, new byte[0], null));
+        }));
+
+        assertThrows(WebClientResponseException.NotFound.class,
+                () -> new ResilientBeerClient(delegate, settings).getBeerByUPC("0000").block());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void hedgesSlowCalls() {
+        settings.setHedgingEnabled(true);
+        settings.setMinHedgeSamples(0);
+        settings.setMinHedgeDelay(Duration.ofMillis(20));
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.just(kingFisher).delayElement(Duration.ofSeconds(5)) : Mono.just(kingFisher)));
+
+        assertEquals(kingFisher, new ResilientBeerClient(delegate, settings).getBeerById(kingFisher.getId())
+                .block(Duration.ofSeconds(1)));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void fastHedgeFailureDoesNotBeatSlowerSuccess() {
+        settings.setHedgingEnabled(true);
+        settings.setMinHedgeSamples(0);
+        settings.setMaxRetries(0);
+        settings.setMinHedgeDelay(Duration.ofMillis(20));
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.defer(() -> attempts.incrementAndGet() == 1
+                ? Mono.just(kingFisher).delayElement(Duration.ofMillis(200)) : Mono.error(serverError())));
+
+        assertEquals(kingFisher, new ResilientBeerClient(delegate, settings).getBeerById(kingFisher.getId())
+                .block(Duration.ofSeconds(1)));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void failedFirstAttemptCancelsPendingHedge() {
+        settings.setHedgingEnabled(true);
+        settings.setMinHedgeSamples(0);
+        settings.setMaxRetries(0);
+        settings.setMinHedgeDelay(Duration.ofMillis(50));
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.error(serverError());
+        }));
+
+        WebClientResponseException failure = assertThrows(WebClientResponseException.class,
+                () -> new ResilientBeerClient(delegate, settings).getBeerById(kingFisher.getId()).block(Duration.ofSeconds(1)));
+        assertEquals(503, failure.getRawStatusCode());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void emptyFirstAttemptCancelsPendingHedge() throws InterruptedException {
+        settings.setHedgingEnabled(true);
+        settings.setMinHedgeSamples(0);
+        settings.setMinHedgeDelay(Duration.ofMillis(50));
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.empty();
+        }));
+
+        assertNull(new ResilientBeerClient(delegate, settings).getBeerById(kingFisher.getId())
+                .block(Duration.ofSeconds(1)));
+        Thread.sleep(150);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void doesNotHedgeBeforeEnoughLatenciesAreKnown() {
+        settings.setHedgingEnabled(true);
+        settings.setMinHedgeSamples(2);
+        settings.setMinHedgeDelay(Duration.ofMillis(20));
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.getBeerById(any())).thenReturn(Mono.defer(() -> {
+            int attempt = attempts.incrementAndGet();
+            return attempt == 4 ? Mono.just(kingFisher)
+                    : Mono.just(kingFisher).delayElement(Duration.ofMillis(attempt == 3 ? 5000 : 100));
+        }));
+        ResilientBeerClient beerClient = new ResilientBeerClient(delegate, settings);
+
+        beerClient.getBeerById(UUID.randomUUID()).block(Duration.ofSeconds(1));
+        beerClient.getBeerById(UUID.randomUUID()).block(Duration.ofSeconds(1));
+        assertEquals(2, attempts.get());
+
+        assertEquals(kingFisher, beerClient.getBeerById(UUID.randomUUID()).block(Duration.ofSeconds(1)));
+        assertEquals(4, attempts.get());
+    }
+
+    @Test
+    void concurrentLookupsShareOneGuardedCall() {
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.defer(() -> {
+            attempts.incrementAndGet();
+            return Mono.just(kingFisher).delayElement(Duration.ofMillis(100));
+        }));
+        ResilientBeerClient beerClient = new ResilientBeerClient(delegate, settings);
+
+        assertEquals(List.of(kingFisher, kingFisher), Flux.merge(beerClient.getBeerById(kingFisher.getId()),
+                beerClient.getBeerById(kingFisher.getId())).collectList().block(Duration.ofSeconds(1)));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void retriesAreRecordedByTheCircuitBreaker() {
+        settings.setMaxRetries(2);
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.error(serverError()));
+        ResilientBeerClient beerClient = new ResilientBeerClient(delegate, settings);
+
+        assertThrows(WebClientResponseException.class, () -> beerClient.getBeerById(kingFisher.getId()).block());
+        assertEquals(3, beerClient.getCircuitBreaker().getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    void opensCircuitAfterRepeatedFailures() {
+        settings.setMaxRetries(0);
+        settings.setCircuitBreakerMinimumNumberOfCalls(2);
+        settings.setCircuitBreakerSlidingWindowSize(2);
+        when(delegate.getBeerById(kingFisher.getId())).thenReturn(Mono.error(serverError()));
+        ResilientBeerClient beerClient = new ResilientBeerClient(delegate, settings);
+
+        assertThrows(WebClientResponseException.class, () -> beerClient.getBeerById(kingFisher.getId()).block());
+        assertThrows(WebClientResponseException.class, () -> beerClient.getBeerById(kingFisher.getId()).block());
+        assertThrows(CallNotPermittedException.class, () -> beerClient.getBeerById(kingFisher.getId()).block());
+    }
+
+    private static WebClientResponseException serverError() {
+        return WebClientResponseException.create(503, "Service Unavailable", HttpHeaders.EMPTY, new byte[0], null);
+    }
+}
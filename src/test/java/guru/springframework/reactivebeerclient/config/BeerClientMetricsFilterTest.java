@@ -0,0 +1,97 @@
+package guru.springframework.reactivebeerclient.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import guru.springframework.reactivebeerclient.client.BeerClient;
+import guru.springframework.reactivebeerclient.client.BeerClientImpl;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.SAISON;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+class BeerClientMetricsFilterTest {
+
+    private final MockWebServer mockWebServer = new MockWebServer();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final String baseUrl = mockWebServer.url("/").toString();
+    private final BeerClient beerClient = new BeerClientImpl(WebClient.builder()
+            .baseUrl(baseUrl)
+            .filter(new BeerClientMetricsFilter(meterRegistry, 0.99))
+            .codecs(codecs -> codecs.defaultCodecs().jackson2JsonDecoder(new DecodeOffloading(meterRegistry, new double[]{0.99}, null, 0)
+                    .decorate(new Jackson2JsonDecoder())))
+            .build(), baseUrl);
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void recordsRequestTimeSizeAndDecodeTime() throws JsonProcessingException {
+        String body = new ObjectMapper().writeValueAsString(BeerDto.builder().id(UUID.randomUUID())
+                .beerName("KingFisher").beerStyle(SAISON.name()).build());
+        mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value())
+                .setHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE).setBody(body));
+
+        beerClient.getBeerById(UUID.randomUUID()).block();
+
+        assertEquals(1, meterRegistry.get("beer.client.requests").tags("operation", "getBeerById",
+                "status", "200", "exception", "none", "outcome", "SUCCESS").timer().count());
+        assertEquals(body.length(), meterRegistry.get("beer.client.response.size")
+                .tags("operation", "getBeerById").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("beer.client.decode").tag("type", "BeerDto").timer().count());
+    }
+
+    @Test
+    void tagsErrorStatus() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(NOT_FOUND.value()));
+
+        assertThrows(WebClientResponseException.NotFound.class, () -> beerClient.getBeerByUPC("0000").block());
+
+        assertTrue(meterRegistry.get("beer.client.requests").tags("operation", "getBeerByUPC", "status", "404",
+                "outcome", "CLIENT_ERROR").timer().count() > 0);
+    }
+
+    @Test
+    void recordsExchangesCancelledBeforeTheResponse() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value()).setHeadersDelay(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class,
+                () -> beerClient.getBeerById(UUID.randomUUID()).block(Duration.ofMillis(200)));
+
+        assertEquals(1, meterRegistry.get("beer.client.requests").tags("operation", "getBeerById",
+                "status", "CANCELLED", "outcome", "CANCELLED").timer().count());
+    }
+
+    @Test
+    void recordsExchangesCancelledWhileReadingTheBody() {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value())
+                .setHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE).setBody("{\"beerName\":\"KingFisher\"}")
+                .setBodyDelay(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class,
+                () -> beerClient.getBeerById(UUID.randomUUID()).block(Duration.ofMillis(500)));
+
+        assertEquals(1, meterRegistry.get("beer.client.requests").tags("operation", "getBeerById",
+                "status", "200", "outcome", "CANCELLED").timer().count());
+    }
+}
@@ -0,0 +1,84 @@
+package guru.springframework.reactivebeerclient.config;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.codec.HttpMessageDecoder;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+class DecodeOffloadingTest {
+
+    private static final String KING_FISHER = "{\"beerName\":\"KingFisher\"}";
+
+    private final Scheduler decodeScheduler = Schedulers.newParallel("beer-client-decode", 1, true);
+
+    @AfterEach
+    void tearDown() {
+        decodeScheduler.dispose();
+    }
+
+    @Test
+    void decodesLargeBodiesOnTheDecodeScheduler() {
+        HttpMessageDecoder<Object> decoder = new DecodeOffloading(null, new double[0], decodeScheduler, 16)
+                .decorate(new Jackson2JsonDecoder());
+
+        String thread = decoder.decodeToMono(body(KING_FISHER), ResolvableType.forClass(BeerDto.class), APPLICATION_JSON, null)
+                .map(beer -> {
+                    assertEquals("KingFisher", ((BeerDto) beer).getBeerName());
+                    return Thread.currentThread().getName();
+                })
+                .block();
+
+        assertTrue(thread.startsWith("beer-client-decode"), thread);
+    }
+
+    @Test
+    void decodesSmallBodiesInPlace() {
+        HttpMessageDecoder<Object> decoder = new DecodeOffloading(null, new double[0], decodeScheduler, 1024)
+                .decorate(new Jackson2JsonDecoder());
+
+        String thread = decoder.decodeToMono(body(KING_FISHER), ResolvableType.forClass(BeerDto.class), APPLICATION_JSON, null)
+                .map(beer -> Thread.currentThread().getName())
+                .block();
+
+        assertEquals(Thread.currentThread().getName(), thread);
+    }
+
+    @Test
+    void releasesTheBodyWhenTheDecodeSchedulerRejectsIt() {
+        decodeScheduler.dispose();
+        HttpMessageDecoder<Object> decoder = new DecodeOffloading(null, new double[0], decodeScheduler, 16)
+                .decorate(new Jackson2JsonDecoder());
+        NettyDataBuffer body = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT)
+                .wrap(Unpooled.copiedBuffer(KING_FISHER, UTF_8));
+
+        Mono<Object> decoded = decoder.decodeToMono(Flux.just(body), ResolvableType.forClass(BeerDto.class),
+                APPLICATION_JSON, null);
+
+        assertThrows(RejectedExecutionException.class, decoded::block);
+        assertEquals(0, body.getNativeBuffer().refCnt());
+    }
+
+    private static Flux<DataBuffer> body(String json) {
+        return Flux.just(new DefaultDataBufferFactory().wrap(json.getBytes(UTF_8)));
+    }
+}
@@ -0,0 +1,83 @@
+package guru.springframework.reactivebeerclient.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.GzipSource;
+import okio.Okio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpStatus.CREATED;
+
+class RequestCompressionFilterTest {
+
+    private final MockWebServer mockWebServer = new MockWebServer();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WebClient webClient = WebClient.builder().baseUrl(mockWebServer.url("/").toString())
+            .filter(new RequestCompressionFilter(64, meterRegistry))
+            .build();
+
+    @AfterEach
+    void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void gzipsLargeBodies() throws Exception {
+        String body = "Mango Bobs ".repeat(100);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(CREATED.value()));
+
+        webClient.post().uri("/api/v1/beer").bodyValue(body).retrieve().toBodilessEntity().block();
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertEquals("gzip", request.getHeader("Content-Encoding"));
+        assertEquals(body, Okio.buffer(new GzipSource(request.getBody())).readUtf8());
+        assertTrue(meterRegistry.get("beer.client.request.compression.ratio").summary().max() > 1);
+    }
+
+    @Test
+    void leavesSmallBodiesAlone() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(CREATED.value()));
+
+        webClient.post().uri("/api/v1/beer").bodyValue("KingFisher").retrieve().toBodilessEntity().block();
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertNull(request.getHeader("Content-Encoding"));
+        assertEquals("KingFisher", request.getBody().readUtf8());
+    }
+
+    @Test
+    void writesTheRequestWhenTheBodyPublisherIsEmpty() {
+        MockClientHttpRequest outputMessage = new MockClientHttpRequest(HttpMethod.POST, "/api/v1/beer");
+        ClientRequest request = ClientRequest.create(HttpMethod.POST, URI.create("/api/v1/beer"))
+                .body((message, context) -> message.writeWith(Flux.empty()))
+                .build();
+
+        new RequestCompressionFilter(0, meterRegistry)
+                .filter(request, filtered -> filtered.writeTo(outputMessage, ExchangeStrategies.withDefaults())
+                        .then(Mono.just(ClientResponse.create(CREATED).build())))
+                .block(Duration.ofSeconds(5));
+
+        assertTrue(outputMessage.isCommitted());
+        assertNull(outputMessage.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("", outputMessage.getBodyAsString().block(Duration.ofSeconds(5)));
+    }
+}
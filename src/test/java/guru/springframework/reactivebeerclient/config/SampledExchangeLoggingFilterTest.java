@@ -0,0 +1,123 @@
+package guru.springframework.reactivebeerclient.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpStatus.OK;
+
+class SampledExchangeLoggingFilterTest {
+
+    private final ExchangeFunction server = request -> Mono.just(ClientResponse.create(OK).build());
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SampledExchangeLoggingFilter.class);
+
+    private Level previousLevel;
+
+    @BeforeEach
+    void setUp() {
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.INFO);
+        logger.addAppender(appender);
+        appender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(previousLevel);
+    }
+
+    @Test
+    void logsOneInSampleRateExchanges() {
+        SampledExchangeLoggingFilter filter = new SampledExchangeLoggingFilter(true, 2, Duration.ofHours(1));
+
+        exchange(filter, 6);
+
+        assertEquals(3, appender.list.size());
+    }
+
+    @Test
+    void logsEverySlowExchange() {
+        SampledExchangeLoggingFilter filter = new SampledExchangeLoggingFilter(true, 1000, Duration.ZERO);
+
+        exchange(filter, 3);
+
+        assertEquals(3, appender.list.size());
+    }
+
+    @Test
+    void canBeSwitchedOnAndOffAtRuntime() {
+        SampledExchangeLoggingFilter filter = new SampledExchangeLoggingFilter(false, 1, Duration.ofHours(1));
+
+        exchange(filter, 2);
+        assertEquals(0, appender.list.size());
+
+        filter.setEnabled(true);
+        exchange(filter, 2);
+        assertEquals(2, appender.list.size());
+
+        filter.setEnabled(false);
+        exchange(filter, 2);
+        assertEquals(2, appender.list.size());
+    }
+
+    @Test
+    void masksCredentialsAndCookies() {
+        SampledExchangeLoggingFilter filter = new SampledExchangeLoggingFilter(true, 1, Duration.ofHours(1));
+        ExchangeFunction server = request -> Mono.just(ClientResponse.create(OK)
+                .header(HttpHeaders.SET_COOKIE, "session=s3cr3t-session").header("X-Beer", "KingFisher").build());
+
+        filter.filter(ClientRequest.create(GET, URI.create("http://localhost/api/v1/beer"))
+                .header(HttpHeaders.AUTHORIZATION, "Bearer s3cr3t-token")
+                .header("proxy-authorization", "Basic s3cr3t-proxy")
+                .header(HttpHeaders.COOKIE, "session=s3cr3t-cookie")
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .build(), server).block();
+
+        String logged = appender.list.get(0).getFormattedMessage();
+        assertFalse(logged.contains("s3cr3t"), logged);
+        assertTrue(logged.contains("Authorization:\"" + SampledExchangeLoggingFilter.MASK + "\""), logged);
+        assertTrue(logged.contains("application/json"), logged);
+        assertTrue(logged.contains("KingFisher"), logged);
+    }
+
+    @Test
+    void masksTheConfiguredHeadersOnly() {
+        SampledExchangeLoggingFilter filter = new SampledExchangeLoggingFilter(true, 1, Duration.ofHours(1),
+                List.of("X-Api-Key"));
+
+        filter.filter(ClientRequest.create(GET, URI.create("http://localhost/api/v1/beer"))
+                .header("x-api-key", "s3cr3t-key")
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .build(), server).block();
+
+        String logged = appender.list.get(0).getFormattedMessage();
+        assertFalse(logged.contains("s3cr3t"), logged);
+        assertTrue(logged.contains("application/json"), logged);
+    }
+
+    private void exchange(SampledExchangeLoggingFilter filter, int times) {
+        for (int i = 0; i < times; i++) {
+            filter.filter(ClientRequest.create(GET, URI.create("http://localhost/api/v1/beer")).build(), server).block();
+        }
+    }
+}
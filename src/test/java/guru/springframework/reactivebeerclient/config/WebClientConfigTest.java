@@ -0,0 +1,171 @@
+package guru.springframework.reactivebeerclient.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import guru.springframework.reactivebeerclient.client.BeerClient;
+import guru.springframework.reactivebeerclient.client.BeerClientImpl;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+import static guru.springframework.reactivebeerclient.config.WebClientConfig.SMILE_VALUE;
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.BEER_V2_URL;
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.BEER_V2_URL_BY_BEERID;
+import static guru.springframework.reactivebeerclient.config.WebClientConfigProperties.BEER_V2_URL_BY_UPC;
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.SAISON;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.HttpHeaders.ACCEPT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+class WebClientConfigTest {
+
+    private final MockWebServer mockWebServer = new MockWebServer();
+    private WebClientConfig webClientConfig;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (webClientConfig != null) {
+            webClientConfig.dispose();
+        }
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    void negotiatesSmile() throws Exception {
+        WebClientConfigProperties properties = new WebClientConfigProperties();
+        properties.setBaseUrl(mockWebServer.url("/").toString());
+        properties.setWireFormat(WebClientConfigProperties.WireFormat.SMILE);
+        webClientConfig = new WebClientConfig(properties, new SimpleMeterRegistry());
+        BeerClient beerClient = new BeerClientImpl(webClientConfig.getWebClient(), properties.getBaseUrl());
+        BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+                .beerStyle(SAISON.name()).price(new BigDecimal("240.50")).build();
+        mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value()).setHeader(CONTENT_TYPE, SMILE_VALUE)
+                .setBody(new Buffer().write(new ObjectMapper(new SmileFactory()).writeValueAsBytes(kingFisher))));
+
+        BeerDto beerById = beerClient.getBeerById(kingFisher.getId()).block();
+
+        assertEquals(kingFisher, beerById);
+        assertTrue(mockWebServer.takeRequest().getHeader("Accept").startsWith(SMILE_VALUE));
+    }
+
+    @Test
+    void decodesSmileOnTheDecodeScheduler() throws Exception {
+        WebClientConfigProperties properties = new WebClientConfigProperties();
+        properties.setBaseUrl(mockWebServer.url("/").toString());
+        properties.setWireFormat(WebClientConfigProperties.WireFormat.SMILE);
+        properties.getDecoding().setOffloadEnabled(true);
+        properties.getDecoding().setOffloadThreshold(0);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        webClientConfig = new WebClientConfig(properties, meterRegistry);
+        BeerClient beerClient = new BeerClientImpl(webClientConfig.getWebClient(), properties.getBaseUrl());
+        BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+                .beerStyle(SAISON.name()).price(new BigDecimal("240.50")).build();
+        mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value()).setHeader(CONTENT_TYPE, SMILE_VALUE)
+                .setBody(new Buffer().write(new ObjectMapper(new SmileFactory()).writeValueAsBytes(kingFisher))));
+
+        String thread = beerClient.getBeerById(kingFisher.getId())
+                .map(beer -> {
+                    assertEquals(kingFisher, beer);
+                    return Thread.currentThread().getName();
+                })
+                .block();
+
+        assertTrue(thread.startsWith("beer-client-decode"), thread);
+        assertEquals(1, meterRegistry.get("beer.client.decode").tag("type", "BeerDto").timer().count());
+    }
+
+    @Test
+    void recordsResponseCompressionRatio() throws Exception {
+        WebClientConfigProperties properties = new WebClientConfigProperties();
+        properties.setBaseUrl(mockWebServer.url("/").toString());
+        properties.getCompression().setResponseEnabled(true);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        webClientConfig = new WebClientConfig(properties, meterRegistry);
+        BeerClient beerClient = new BeerClientImpl(webClientConfig.getWebClient(), properties.getBaseUrl());
+        BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher".repeat(100))
+                .beerStyle(SAISON.name()).price(new BigDecimal("240.50")).build();
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(new ObjectMapper().writeValueAsBytes(kingFisher));
+        }
+        mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value()).setHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                .setHeader(CONTENT_ENCODING, "gzip").setBody(new Buffer().write(gzipped.toByteArray())));
+
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()).block(Duration.ofSeconds(5)));
+
+        DistributionSummary ratio = meterRegistry.get("beer.client.response.compression.ratio").summary();
+        assertEquals(1, ratio.count());
+        assertTrue(ratio.max() > 1);
+    }
+
+    @Test
+    void asksForUncompressedResponsesByDefault() throws Exception {
+        WebClientConfigProperties properties = new WebClientConfigProperties();
+        properties.setBaseUrl(mockWebServer.url("/").toString());
+        webClientConfig = new WebClientConfig(properties, new SimpleMeterRegistry());
+        BeerClient beerClient = new BeerClientImpl(webClientConfig.getWebClient(), properties.getBaseUrl());
+        BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+                .beerStyle(SAISON.name()).build();
+        mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value()).setHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                .setBody(new ObjectMapper().writeValueAsString(kingFisher)));
+
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()).block(Duration.ofSeconds(5)));
+
+        assertNull(mockWebServer.takeRequest().getHeader(ACCEPT_ENCODING));
+    }
+
+    @Test
+    void speaksH2cWithPriorKnowledge() throws Exception {
+        mockWebServer.setProtocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+        WebClientConfigProperties properties = new WebClientConfigProperties();
+        properties.setBaseUrl(mockWebServer.url("/").toString());
+        properties.getHttp2().setEnabled(true);
+        properties.getHttp2().setFallbackToHttp11(false);
+        webClientConfig = new WebClientConfig(properties, new SimpleMeterRegistry());
+        BeerClient beerClient = new BeerClientImpl(webClientConfig.getWebClient(), properties.getBaseUrl());
+        BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+                .beerStyle(SAISON.name()).price(new BigDecimal("240.50")).build();
+        for (int i = 0; i < 2; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(OK.value()).setHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                    .setBody(new ObjectMapper().writeValueAsString(kingFisher)));
+        }
+
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()).block(Duration.ofSeconds(5)));
+        assertEquals(kingFisher, beerClient.getBeerById(kingFisher.getId()).block(Duration.ofSeconds(5)));
+
+        assertEquals(0, mockWebServer.takeRequest().getSequenceNumber());
+        assertEquals(1, mockWebServer.takeRequest().getSequenceNumber());
+    }
+
+    @Test
+    void tagsUrisWithTheTemplateBelowTheBasePath() {
+        String basePath = WebClientConfig.basePath("http://gateway.local/beer-service/");
+        UUID id = UUID.randomUUID();
+
+        assertEquals("/beer-service", basePath);
+        assertEquals(BEER_V2_URL_BY_BEERID, WebClientConfig.uriTagValue(basePath, "/beer-service/api/v1/beer/" + id));
+        assertEquals(BEER_V2_URL_BY_UPC, WebClientConfig.uriTagValue(basePath, "/beer-service/api/v1/beerUpc/0631234"));
+        assertEquals(BEER_V2_URL, WebClientConfig.uriTagValue(basePath, "/beer-service/api/v1/beer?pageSize=25"));
+        assertEquals(BEER_V2_URL_BY_BEERID, WebClientConfig.uriTagValue(WebClientConfig.basePath("http://localhost:8080"),
+                "/api/v1/beer/" + id));
+    }
+}
@@ -0,0 +1,69 @@
+package guru.springframework.reactivebeerclient.model;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.IPA;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactBeerDtoDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void readsEveryField() throws Exception {
+        CompactBeerDto beer = objectMapper.readValue("{\"id\":\"0a818933-087d-47f2-ad83-2f986ed087eb\"," +
+                "\"beerName\":\"Mango Bobs\",\"beerStyle\":\"IPA\",\"upc\":\"0631234200036\",\"price\":12.345," +
+                "\"quantityOnHand\":12,\"createdDate\":\"2021-05-17T09:13:27.5+02:00\"," +
+                "\"lastUpdatedDate\":\"2021-05-18T00:00:00Z\",\"extra\":{\"nested\":[1,2]}}", CompactBeerDto.class);
+
+        assertEquals(UUID.fromString("0a818933-087d-47f2-ad83-2f986ed087eb"), beer.getId());
+        assertEquals("Mango Bobs", beer.getBeerName());
+        assertEquals(IPA, beer.getBeerStyle());
+        assertEquals("0631234200036", beer.getUpc());
+        assertEquals(1235, beer.getPriceCents());
+        assertEquals(12, beer.getQuantityOnHand());
+        assertEquals(Instant.parse("2021-05-17T07:13:27.500Z").toEpochMilli(), beer.getCreatedEpochMillis());
+        assertEquals(Instant.parse("2021-05-18T00:00:00Z").toEpochMilli(), beer.getLastUpdatedEpochMillis());
+    }
+
+    @Test
+    void defaultsMissingAndUnknownValues() throws Exception {
+        CompactBeerDto beer = objectMapper.readValue("{\"beerStyle\":\"MEAD\",\"price\":7,\"quantityOnHand\":null}",
+                CompactBeerDto.class);
+
+        assertNull(beer.getBeerStyle());
+        assertEquals(700, beer.getPriceCents());
+        assertEquals(0, beer.getQuantityOnHand());
+        assertEquals(CompactBeerDto.NO_TIMESTAMP, beer.getCreatedEpochMillis());
+    }
+
+    @Test
+    void readsEveryZoneOffsetForm() throws Exception {
+        long expected = Instant.parse("2021-05-17T07:13:27Z").toEpochMilli();
+
+        for (String offset : new String[]{"+02", "+0200", "+02:00"}) {
+            CompactBeerDto beer = objectMapper.readValue("{\"createdDate\":\"2021-05-17T09:13:27" + offset + "\"}",
+                    CompactBeerDto.class);
+
+            assertEquals(expected, beer.getCreatedEpochMillis(), offset);
+        }
+    }
+
+    @Test
+    void rejectsTruncatedZoneOffset() {
+        assertThrows(JsonMappingException.class, () -> objectMapper.readValue(
+                "{\"createdDate\":\"2021-05-17T09:13:27+0\"}", CompactBeerDto.class));
+    }
+
+    @Test
+    void rejectsMalformedId() {
+        assertThrows(Exception.class, () -> objectMapper.readValue("{\"id\":\"not-a-uuid\"}", CompactBeerDto.class));
+    }
+}
@@ -0,0 +1,157 @@
+package guru.springframework.reactivebeerclient.store;
+
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.SAISON;
+import static guru.springframework.reactivebeerclient.model.v2.BeerStyleEnum.STOUT;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeerStoreTest {
+
+    private final BeerDto kingFisher = BeerDto.builder().id(UUID.randomUUID()).beerName("KingFisher")
+            .beerStyle(SAISON.name()).price(new BigDecimal("240.50")).upc("354354879832").build();
+    private final BeerDto blessed = BeerDto.builder().id(UUID.randomUUID()).beerName("Blessed")
+            .beerStyle(STOUT.name()).price(new BigDecimal("76.96")).upc("4666337557578").build();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenedStoreServesWhatWasWritten() throws IOException {
+        Path file = directory.resolve("beers.log");
+        try (BeerStore store = BeerStore.open(file)) {
+            store.put(kingFisher);
+            store.put(blessed);
+            store.delete(blessed.getId());
+            assertEquals(kingFisher, store.get(kingFisher.getId()).orElseThrow().getBeer());
+        }
+
+        try (BeerStore store = BeerStore.open(file)) {
+            assertEquals(1, store.size());
+            assertEquals(kingFisher, store.get(kingFisher.getId()).orElseThrow().getBeer());
+            assertEquals(kingFisher, store.getByUpc(kingFisher.getUpc()).orElseThrow().getBeer());
+            assertTrue(store.get(blessed.getId()).isEmpty());
+            assertTrue(store.getByUpc(blessed.getUpc()).isEmpty());
+        }
+    }
+
+    @Test
+    void dropsRecordsFromTheFirstCorruptedOne() throws IOException {
+        Path file = directory.resolve("beers.log");
+        try (BeerStore store = BeerStore.open(file)) {
+            store.put(kingFisher);
+            store.put(blessed);
+        }
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'#'}), size - 2);
+        }
+
+        try (BeerStore store = BeerStore.open(file)) {
+            assertEquals(1, store.size());
+            assertTrue(store.get(kingFisher.getId()).isPresent());
+            assertTrue(store.get(blessed.getId()).isEmpty());
+        }
+        assertTrue(Files.size(file) < size);
+    }
+
+    @Test
+    void discardsFilesOfAnotherFormat() throws IOException {
+        Path file = directory.resolve("beers.log");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+
+        try (BeerStore store = BeerStore.open(file)) {
+            assertEquals(0, store.size());
+            store.put(kingFisher);
+        }
+        try (BeerStore store = BeerStore.open(file)) {
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveRecords() throws IOException {
+        Path file = directory.resolve("beers.log");
+        try (BeerStore store = BeerStore.open(file)) {
+            for (int i = 0; i < 10; i++) {
+                store.put(kingFisher);
+            }
+            long before = Files.size(file);
+
+            store.compact();
+
+            assertTrue(Files.size(file) < before);
+            assertEquals(kingFisher, store.get(kingFisher.getId()).orElseThrow().getBeer());
+        }
+    }
+
+    @Test
+    void readsStayConsistentWhileCompacting() throws Exception {
+        Path file = directory.resolve("beers.log");
+        try (BeerStore store = BeerStore.open(file)) {
+            store.put(blessed);
+            AtomicBoolean compacting = new AtomicBoolean(true);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread compactor = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 200; i++) {
+                        store.put(kingFisher);
+                        store.compact();
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                } finally {
+                    compacting.set(false);
+                }
+            });
+            compactor.start();
+            while (compacting.get()) {
+                assertEquals(blessed, store.get(blessed.getId()).orElseThrow().getBeer());
+                assertEquals(blessed, store.getByUpc(blessed.getUpc()).orElseThrow().getBeer());
+            }
+            compactor.join();
+            assertNull(failure.get());
+        }
+    }
+
+    @Test
+    void rejectsUpcsLongerThanTheRecordCanHold() throws IOException {
+        try (BeerStore store = BeerStore.open(directory.resolve("beers.log"))) {
+            BeerDto longUpc = BeerDto.builder().id(UUID.randomUUID()).upc("7".repeat(0x10000)).build();
+
+            assertThrows(IllegalArgumentException.class, () -> store.put(longUpc));
+            store.put(BeerDto.builder().id(longUpc.getId()).upc("7".repeat(0xFFFF)).build());
+            assertTrue(store.getByUpc("7".repeat(0xFFFF)).isPresent());
+        }
+    }
+
+    @Test
+    void readsALogLeftWithTheZerosItsMappingGrewInto() throws IOException {
+        Path file = directory.resolve("beers.log");
+        BeerStore crashed = BeerStore.open(file);
+        crashed.put(kingFisher);
+        crashed.put(blessed);
+        assertTrue(crashed.get(blessed.getId()).isPresent());
+        long written = Files.size(file);
+
+        try (BeerStore store = BeerStore.open(file)) {
+            assertEquals(2, store.size());
+            assertEquals(blessed, store.get(blessed.getId()).orElseThrow().getBeer());
+            assertTrue(Files.size(file) < written);
+        }
+        crashed.close();
+    }
+}
@@ -0,0 +1,144 @@
+package guru.springframework.reactivebeerclient.sync;
+
+import guru.springframework.reactivebeerclient.client.BeerClient;
+import guru.springframework.reactivebeerclient.model.BeerChangeEvent;
+import guru.springframework.reactivebeerclient.model.BeerDto;
+import guru.springframework.reactivebeerclient.model.BeerPagedList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static guru.springframework.reactivebeerclient.model.BeerChangeEvent.Type.DELETE;
+import static guru.springframework.reactivebeerclient.model.BeerChangeEvent.Type.UPSERT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BeerSyncEngineTest {
+
+    private static final OffsetDateTime T0 = OffsetDateTime.of(2021, 5, 17, 7, 0, 0, 0, ZoneOffset.UTC);
+
+    private final BeerDto mangoBobs = beer("Mango Bobs", T0.plusMinutes(3), null);
+    private final BeerDto galaxyCat = beer("Galaxy Cat", T0.plusMinutes(2), null);
+    private final BeerDto blessed = beer("Blessed", T0.plusMinutes(1), null);
+
+    private BeerClient beerClient;
+
+    @BeforeEach
+    void setUp() {
+        beerClient = mock(BeerClient.class);
+    }
+
+    @Test
+    void firstPassEmitsTheWholeCatalog() {
+        pages(List.of(mangoBobs, galaxyCat), List.of(blessed));
+        BeerSyncEngine engine = new BeerSyncEngine(beerClient, 2, false);
+
+        List<BeerChangeEvent> events = engine.sync().collectList().block();
+
+        assertEquals(List.of(BeerChangeEvent.upsert(mangoBobs), BeerChangeEvent.upsert(galaxyCat),
+                BeerChangeEvent.upsert(blessed)), events);
+        assertEquals(T0.plusMinutes(3), engine.getWatermark());
+    }
+
+    @Test
+    void fullWalkEmitsUpdatesAndDeletes() {
+        pages(List.of(mangoBobs, galaxyCat), List.of(blessed));
+        BeerSyncEngine engine = new BeerSyncEngine(beerClient, 2, false);
+        engine.sync().blockLast();
+
+        BeerDto updated = beer(galaxyCat.getId(), "Galaxy Cat", galaxyCat.getCreatedDate(), T0.plusMinutes(5));
+        pages(List.of(mangoBobs, updated));
+        when(beerClient.getBeerById(blessed.getId())).thenReturn(Mono.error(notFound()));
+        List<BeerChangeEvent> events = engine.sync().collectList().block();
+
+        assertEquals(List.of(BeerChangeEvent.upsert(updated), BeerChangeEvent.delete(blessed.getId())), events);
+        assertEquals(T0.plusMinutes(5), engine.getWatermark());
+    }
+
+    @Test
+    void beersShiftedOntoAPageAlreadyReadAreNotDeleted() {
+        pages(List.of(mangoBobs, galaxyCat), List.of(blessed));
+        BeerSyncEngine engine = new BeerSyncEngine(beerClient, 2, false);
+        engine.sync().blockLast();
+
+        // Page 0 is read, then Mango Bobs is deleted and Blessed moves up onto page 0, leaving page 1 empty.
+        when(beerClient.listBeers(eq(0), anyInt(), any(), any(), any()))
+                .thenReturn(Mono.just(new BeerPagedList(List.of(mangoBobs, galaxyCat), PageRequest.of(0, 2), 3)));
+        when(beerClient.listBeers(eq(1), anyInt(), any(), any(), any()))
+                .thenReturn(Mono.just(new BeerPagedList(List.of(), PageRequest.of(1, 2), 2)));
+        when(beerClient.getBeerById(blessed.getId())).thenReturn(Mono.just(blessed));
+        assertEquals(List.of(), engine.sync().collectList().block());
+
+        when(beerClient.getBeerById(blessed.getId())).thenReturn(Mono.error(new IllegalStateException("timed out")));
+        assertEquals(List.of(), engine.sync().collectList().block());
+
+        when(beerClient.getBeerById(blessed.getId())).thenReturn(Mono.error(notFound()));
+        assertEquals(List.of(BeerChangeEvent.delete(blessed.getId())), engine.sync().collectList().block());
+    }
+
+    @Test
+    void newestFirstWalkStopsAtTheWatermark() {
+        pages(List.of(mangoBobs, galaxyCat), List.of(blessed));
+        BeerSyncEngine engine = new BeerSyncEngine(beerClient, 2, true);
+        engine.sync().blockLast();
+
+        BeerDto created = beer("Spocktoberfest", T0.plusMinutes(4), null);
+        pages(List.of(created, mangoBobs, galaxyCat), List.of(blessed));
+        clearInvocations(beerClient);
+        List<BeerChangeEvent> events = engine.sync().collectList().block();
+
+        assertEquals(List.of(BeerChangeEvent.upsert(created)), events);
+        verify(beerClient, never()).listBeers(eq(1), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void changeFeedIsAskedFromTheWatermark() {
+        pages(List.of(mangoBobs, galaxyCat, blessed));
+        BeerSyncEngine.ChangeFeed changeFeed = mock(BeerSyncEngine.ChangeFeed.class);
+        BeerDto updated = beer(blessed.getId(), "Blessed", blessed.getCreatedDate(), T0.plusMinutes(6));
+        when(changeFeed.changedSince(T0.plusMinutes(3))).thenReturn(Flux.just(mangoBobs, updated));
+        BeerSyncEngine engine = new BeerSyncEngine(beerClient, 3, changeFeed);
+        engine.sync().blockLast();
+
+        List<BeerChangeEvent> events = engine.sync().collectList().block();
+
+        assertEquals(List.of(BeerChangeEvent.upsert(updated)), events);
+        assertEquals(T0.plusMinutes(6), engine.getWatermark());
+    }
+
+    @SafeVarargs
+    private void pages(List<BeerDto>... pages) {
+        long total = 0;
+        for (List<BeerDto> page : pages) {
+            total += page.size();
+        }
+        for (int number = 0; number < pages.length; number++) {
+            BeerPagedList page = new BeerPagedList(pages[number], PageRequest.of(number, pages[0].size()), total);
+            when(beerClient.listBeers(eq(number), anyInt(), any(), any(), any())).thenReturn(Mono.just(page));
+        }
+    }
+
+    private static WebClientResponseException notFound() {
+        return WebClientResponseException.create(404, "Not Found", HttpHeaders.EMPTY, new byte[0], null);
+    }
+
+    private static BeerDto beer(String name, OffsetDateTime created, OffsetDateTime updated) {
+        return beer(UUID.randomUUID(), name, created, updated);
+    }
+
+    private static BeerDto beer(UUID id, String name, OffsetDateTime created, OffsetDateTime updated) {
+        return BeerDto.builder().id(id).beerName(name).createdDate(created).lastUpdatedDate(updated).build();
+    }
+}